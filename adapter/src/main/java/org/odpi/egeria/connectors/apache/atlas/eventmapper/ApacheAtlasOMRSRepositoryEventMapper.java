@@ -2,14 +2,18 @@
 /* Copyright Contributors to the ODPi Egeria project. */
 package org.odpi.egeria.connectors.apache.atlas.eventmapper;
 
+import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.AtlasRelationship;
 import org.apache.atlas.model.instance.AtlasRelationshipHeader;
 import org.apache.atlas.model.notification.EntityNotification;
 import org.apache.atlas.notification.entity.EntityMessageDeserializer;
 import org.apache.atlas.utils.AtlasJson;
 import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSMetadataCollection;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSRepositoryConnector;
@@ -30,6 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ApacheAtlasOMRSRepositoryEventMapper supports the event mapper function for Apache Atlas
@@ -43,6 +49,23 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
 
     private static final Logger log = LoggerFactory.getLogger(ApacheAtlasOMRSRepositoryEventMapper.class);
 
+    private static final int DEFAULT_EVENT_LANES = 1;
+    private static final int DEFAULT_EVENT_QUEUE_SIZE = 1000;
+    private static final String DEFAULT_DEAD_LETTER_FILE = "apache-atlas-deadletter.json";
+    private static final int DEFAULT_COALESCE_WINDOW = 0;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_BATCH_LINGER = 0;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+    private static final String DEFAULT_BOOTSTRAP_CHECKPOINT_FILE = "apache-atlas-bootstrap.properties";
+    private static final int DEFAULT_BOOTSTRAP_THREADS = 4;
+    private static final int DEFAULT_BOOTSTRAP_PAGE_SIZE = 100;
+    private static final int DEFAULT_BOOTSTRAP_RATE = 500;
+    private static final String BOOTSTRAP_USER_ID = "ApacheAtlasOMRSRepositoryEventMapper";
+    private static final String DEFAULT_WATERMARK_FILE = "apache-atlas-watermark.properties";
+    private static final int DEFAULT_CATCH_UP_THREADS = 4;
+    private static final int DEFAULT_CATCH_UP_PAGE_SIZE = 100;
+    private static final long RETRIEVAL_RETRY_MILLIS = 5000;
+
     private String sourceName;
     private ApacheAtlasOMRSRepositoryConnector atlasRepositoryConnector;
     private ApacheAtlasOMRSMetadataCollection atlasMetadataCollection;
@@ -57,6 +80,37 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
 
     private EntityMessageDeserializer deserializer;
 
+    private int eventLaneCount;
+    private int eventQueueSize;
+    private OrderedEventLanes eventLanes;
+    private DeadLetterStore deadLetterStore;
+    private int coalesceWindow;
+    private boolean mapFromNotifications;
+    private int emitBatchSize;
+    private int emitBatchLinger;
+    private BatchingEventEmitter eventEmitter;
+    private boolean bootstrap;
+    private String bootstrapCheckpointFile;
+    private int bootstrapThreads;
+    private int bootstrapPageSize;
+    private int bootstrapRate;
+    private BootstrapLoader bootstrapLoader;
+    private String watermarkFile;
+    private boolean catchUp;
+    private int catchUpThreads;
+    private int catchUpPageSize;
+    private CatchUpSync catchUpSync;
+
+    private final AtomicLong entitiesMappedFromNotifications = new AtomicLong(0);
+    private final AtomicLong entitiesMappedFromAtlas = new AtomicLong(0);
+    private final AtomicLong relationshipsMappedFromNotifications = new AtomicLong(0);
+    private final AtomicLong relationshipsMappedFromAtlas = new AtomicLong(0);
+
+    private Thread consumerThread;
+    private volatile boolean consuming;
+    private volatile Consumer<Long, String> consumer;
+    private volatile boolean retrievalFailed;
+
     /**
      * Default constructor
      */
@@ -92,9 +146,37 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
         atlasKafkaProperties.put(ConsumerConfig.GROUP_ID_CONFIG, "ApacheAtlasOMRSRepositoryEventMapper_consumer");
         atlasKafkaProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
         atlasKafkaProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        // Offsets are only committed once the events up to them have been processed
+        atlasKafkaProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
 
         this.deserializer = new EntityMessageDeserializer();
 
+        // Retrieve any configuration for processing events in parallel
+        Map<String, Object> proxyProperties = this.connectionBean.getConfigurationProperties();
+        this.eventLaneCount = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.event.lanes", DEFAULT_EVENT_LANES);
+        this.eventQueueSize = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.event.queuesize", DEFAULT_EVENT_QUEUE_SIZE);
+        Object deadLetterFile = proxyProperties == null ? null : proxyProperties.get("apache.atlas.event.deadletter.file");
+        this.deadLetterStore = new DeadLetterStore(deadLetterFile == null ? DEFAULT_DEAD_LETTER_FILE : deadLetterFile.toString());
+        this.coalesceWindow = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.event.coalesce.window", DEFAULT_COALESCE_WINDOW);
+        this.mapFromNotifications = ApacheAtlasOMRSRepositoryConnector.getBooleanProperty(proxyProperties, "apache.atlas.event.fastpath", true);
+        this.emitBatchSize = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.event.batch.size", DEFAULT_BATCH_SIZE);
+        this.emitBatchLinger = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.event.batch.linger", DEFAULT_BATCH_LINGER);
+
+        // Retrieve any configuration for bootstrapping the cohort with the entities already in Apache Atlas
+        this.bootstrap = ApacheAtlasOMRSRepositoryConnector.getBooleanProperty(proxyProperties, "apache.atlas.bootstrap", false);
+        Object checkpointFile = proxyProperties == null ? null : proxyProperties.get("apache.atlas.bootstrap.checkpoint.file");
+        this.bootstrapCheckpointFile = checkpointFile == null ? DEFAULT_BOOTSTRAP_CHECKPOINT_FILE : checkpointFile.toString();
+        this.bootstrapThreads = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.bootstrap.threads", DEFAULT_BOOTSTRAP_THREADS);
+        this.bootstrapPageSize = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.bootstrap.pagesize", DEFAULT_BOOTSTRAP_PAGE_SIZE);
+        this.bootstrapRate = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.bootstrap.rate", DEFAULT_BOOTSTRAP_RATE);
+
+        // Retrieve any configuration for catching up on changes missed since the last event processed
+        Object configuredWatermarkFile = proxyProperties == null ? null : proxyProperties.get("apache.atlas.event.watermark.file");
+        this.watermarkFile = configuredWatermarkFile == null ? DEFAULT_WATERMARK_FILE : configuredWatermarkFile.toString();
+        this.catchUp = ApacheAtlasOMRSRepositoryConnector.getBooleanProperty(proxyProperties, "apache.atlas.catchup", false);
+        this.catchUpThreads = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.catchup.threads", DEFAULT_CATCH_UP_THREADS);
+        this.catchUpPageSize = ApacheAtlasOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "apache.atlas.catchup.pagesize", DEFAULT_CATCH_UP_PAGE_SIZE);
+
     }
 
 
@@ -172,37 +254,250 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
                     auditCode.getUserAction());
         }
 
+        if (eventLaneCount > 1 || catchUp) {
+            // Process the events for different instances in parallel, while keeping the events for each in order (even
+            // with a single lane, any catch-up is processed on the lanes so that it stays in order with live events)
+            int lanes = Math.max(eventLaneCount, 1);
+            if (log.isInfoEnabled()) { log.info("Processing Apache Atlas events on {} lanes.", lanes); }
+            this.eventLanes = new OrderedEventLanes("ApacheAtlasEventLane", lanes, eventQueueSize);
+        }
+
+        // Send the resulting OMRS events on from a separate thread, so that mapping can carry on in the meantime
+        this.eventEmitter = new BatchingEventEmitter("ApacheAtlasEventEmitter", emitBatchSize, emitBatchLinger);
+
+        // Keep track of the latest event processed, and catch up on anything changed since then (if requested)
+        // before consuming any new events moves that on
+        this.catchUpSync = new CatchUpSync(atlasMetadataCollection, watermarkFile, catchUpThreads, catchUpPageSize);
+        if (catchUp) {
+            catchUpSync.start(this::processModifiedEntity);
+        }
+
         log.info("Starting consumption from Apache Atlas Kafka bus.");
-        new Thread(new KafkaConsumerThread()).start();
+        this.consuming = true;
+        this.consumerThread = new Thread(new KafkaConsumerThread(), "ApacheAtlasEventConsumer");
+        consumerThread.start();
+
+        if (bootstrap) {
+            // Send out the entities that already exist in Apache Atlas, alongside the events for any new changes
+            this.bootstrapLoader = new BootstrapLoader(
+                    atlasMetadataCollection,
+                    BOOTSTRAP_USER_ID,
+                    bootstrapCheckpointFile,
+                    bootstrapThreads,
+                    bootstrapPageSize,
+                    bootstrapRate,
+                    new BootstrapLoader.Listener() {
+                        @Override
+                        public void refresh(EntityDetail entityDetail) {
+                            emit(() -> repositoryEventProcessor.processRefreshEntityEvent(
+                                    sourceName,
+                                    metadataCollectionId,
+                                    originatorServerName,
+                                    originatorServerType,
+                                    localOrganizationName,
+                                    entityDetail
+                            ));
+                        }
+                        @Override
+                        public void flush() throws InterruptedException {
+                            eventEmitter.flush();
+                        }
+                    }
+            );
+            bootstrapLoader.start();
+        }
 
     }
 
 
+    /**
+     * Stop consuming events from Apache Atlas, once those already received have been processed (and their offsets
+     * committed), and then free up any resources held.
+     *
+     * @throws ConnectorCheckedException there is a problem within the connector.
+     */
+    @Override
+    public void disconnect() throws ConnectorCheckedException {
+        log.info("Apache Atlas Event Mapper disconnecting...");
+        if (bootstrapLoader != null) {
+            try {
+                bootstrapLoader.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (catchUpSync != null) {
+            try {
+                catchUpSync.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        consuming = false;
+        Consumer<Long, String> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (consumerThread != null) {
+            try {
+                consumerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (consumerThread.isAlive()) {
+                log.warn("Apache Atlas Event Mapper consumer thread did not finish within {}ms; any events not yet committed will be received again on restart.", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        if (eventLanes != null) {
+            eventLanes.shutdown();
+        }
+        if (eventEmitter != null) {
+            try {
+                eventEmitter.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Apache Atlas Event Mapper mapped {} entities and {} relationships directly from notifications, and retrieved {} entities and {} relationships from Apache Atlas to map them.",
+                    entitiesMappedFromNotifications.get(),
+                    relationshipsMappedFromNotifications.get(),
+                    entitiesMappedFromAtlas.get(),
+                    relationshipsMappedFromAtlas.get());
+        }
+        super.disconnect();
+    }
+
+
     /**
      * Class to support multi-threaded consumption of Apache Atlas Kafka events.
      */
     private class KafkaConsumerThread implements Runnable {
 
         /**
-         * Read Apache Atlas Kafka events.
+         * Read Apache Atlas Kafka events, committing the offsets of each batch of events once they have all been
+         * processed (so that no event is lost, though some may be received again after a failure).
          */
         @Override
         public void run() {
 
             log.info("Starting Apache Atlas Event Mapper consumer thread.");
-            final Consumer<Long, String> consumer = new KafkaConsumer<>(atlasKafkaProperties);
-            consumer.subscribe(Collections.singletonList(atlasKafkaTopic));
-
-            while (true) {
+            consumer = new KafkaConsumer<>(atlasKafkaProperties);
+            List<ReceivedEvent> events = Collections.emptyList();
+            try {
+                consumer.subscribe(Collections.singletonList(atlasKafkaTopic));
+                while (consuming) {
+                    events = pollBatch();
+                    if (!events.isEmpty()) {
+                        for (ReceivedEvent event : coalesceUpdates(events)) {
+                            if (eventLanes == null) {
+                                processReceivedEvent(event);
+                            } else {
+                                eventLanes.submit(getEventKey(event.getNotification()), () -> processReceivedEvent(event));
+                            }
+                        }
+                        commitProcessed(events);
+                    }
+                }
+            } catch (WakeupException e) {
+                // Only expected as part of disconnecting, which may have interrupted the commit of the last batch
+                if (consuming) {
+                    log.error("Unexpected wakeup of Apache Atlas Event Mapper consumer thread.", e);
+                }
                 try {
-                    ConsumerRecords<Long, String> events = consumer.poll(100);
-                    for (ConsumerRecord<Long, String> event : events) {
-                        processEvent(event.value());
+                    commitProcessed(events);
+                } catch (Exception ce) {
+                    log.warn("Unable to commit offsets of processed Apache Atlas events on disconnect; they will be received again.", ce);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Apache Atlas Event Mapper consumer thread interrupted, stopping.");
+            } catch (Exception e) {
+                log.error("Failed trying to consume Apache Atlas events from Kafka, stopping.", e);
+            } finally {
+                consumer.close();
+                consumer = null;
+                log.info("Stopped Apache Atlas Event Mapper consumer thread.");
+            }
+        }
+
+        /**
+         * Retrieve the next batch of events from Kafka: those returned by a single poll or, if there is a coalescing
+         * window configured, all of those received within that window of the first. Any event that cannot be
+         * deserialized is quarantined rather than included in the batch.
+         *
+         * @return {@code List<ReceivedEvent>}
+         */
+        private List<ReceivedEvent> pollBatch() {
+            List<ReceivedEvent> batch = new ArrayList<>();
+            ConsumerRecords<Long, String> records = consumer.poll(100);
+            long windowEnds = System.currentTimeMillis() + coalesceWindow;
+            while (!records.isEmpty()) {
+                for (ConsumerRecord<Long, String> record : records) {
+                    try {
+                        EntityNotification atlasEvent = deserializer.deserialize(record.value());
+                        batch.add(new ReceivedEvent(record, (EntityNotification.EntityNotificationV2) atlasEvent));
+                    } catch (Exception e) {
+                        quarantine(record, e);
                     }
-                } catch (Exception e) {
-                    log.error("Failed trying to consume Apache Atlas events from Kafka.", e);
                 }
+                long remaining = windowEnds - System.currentTimeMillis();
+                if (!consuming || remaining <= 0) {
+                    break;
+                }
+                records = consumer.poll(remaining);
+            }
+            return batch;
+        }
+
+        /**
+         * Wait for every event received so far to be processed, and the resulting OMRS events sent, and then commit
+         * their offsets. If any of the events could not be processed because Apache Atlas could not be reached, nothing
+         * is committed: instead the whole batch is received again, after a pause.
+         *
+         * @param batch the batch of events last received
+         * @throws InterruptedException if interrupted while waiting for the events to be processed
+         */
+        private void commitProcessed(List<ReceivedEvent> batch) throws InterruptedException {
+            if (eventLanes != null) {
+                eventLanes.awaitIdle();
+            }
+            eventEmitter.flush();
+            if (retrievalFailed) {
+                rewind(batch);
+                return;
+            }
+            try {
+                consumer.commitSync();
+                catchUpSync.saveWatermark();
+            } catch (CommitFailedException e) {
+                log.warn("Unable to commit offsets of processed Apache Atlas events; they will be received again.", e);
+            }
+        }
+
+        /**
+         * Move back to the start of the provided batch of events, so that they are all received again, once Apache
+         * Atlas has had a chance to recover.
+         *
+         * @param batch the batch of events to receive again
+         * @throws InterruptedException if interrupted while pausing
+         */
+        private void rewind(List<ReceivedEvent> batch) throws InterruptedException {
+            Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+            for (ReceivedEvent event : batch) {
+                ConsumerRecord<Long, String> record = event.getRecord();
+                firstOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+            }
+            if (consuming) {
+                log.warn("Unable to retrieve from Apache Atlas while processing events; receiving {} events again in {}ms.", batch.size(), RETRIEVAL_RETRY_MILLIS);
+                for (Map.Entry<TopicPartition, Long> firstOffset : firstOffsets.entrySet()) {
+                    consumer.seek(firstOffset.getKey(), firstOffset.getValue());
+                }
+                TimeUnit.MILLISECONDS.sleep(RETRIEVAL_RETRY_MILLIS);
+            } else {
+                log.warn("Unable to retrieve from Apache Atlas while processing events; they will be received again on restart.");
             }
+            retrievalFailed = false;
         }
 
     }
@@ -227,38 +522,178 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
      */
     @Override
     public void processEvent(String event) {
-        if (log.isInfoEnabled()) { log.info("Processing event: {}", event); }
-
         // Need to call this with just the 'message' portion of the payload, it seems?
         EntityNotification atlasEvent = deserializer.deserialize(event);
-        EntityNotification.EntityNotificationV2 entityNotification = (EntityNotification.EntityNotificationV2) atlasEvent;
+        processNotification((EntityNotification.EntityNotificationV2) atlasEvent, event);
+    }
 
+    /**
+     * Process an event received from Kafka, quarantining it if it cannot be processed.
+     *
+     * @param event the event received from Kafka
+     */
+    private void processReceivedEvent(ReceivedEvent event) {
+        if (retrievalFailed) {
+            // The whole batch will be received again, so there is no point processing the rest of it now
+            return;
+        }
+        try {
+            processNotification(event.getNotification(), event.getRecord().value());
+        } catch (RetrievalFailedException e) {
+            // Not a problem with the event itself, so rather than quarantining it the batch is received again
+            log.warn("Unable to process Apache Atlas event, will receive it again: {}", event.getRecord().value(), e);
+            retrievalFailed = true;
+            return;
+        } catch (Exception e) {
+            quarantine(event.getRecord(), e);
+        }
+        if (event.getNotification() != null) {
+            catchUpSync.advanceWatermark(event.getNotification().getEventTime());
+        }
+    }
+
+    /**
+     * Process an entity found to have been modified in Apache Atlas while catching up, just as if a notification of
+     * its change (or of its deletion, if it has been deleted) had been received. The entity is processed on the same
+     * lane as any live events for it, so that it is kept in order with them.
+     *
+     * @param atlasEntityHeader the header of the modified Apache Atlas entity
+     */
+    private void processModifiedEntity(AtlasEntityHeader atlasEntityHeader) {
+        EntityNotification.EntityNotificationV2.OperationType operationType = atlasEntityHeader.getStatus() == AtlasEntity.Status.DELETED
+                ? EntityNotification.EntityNotificationV2.OperationType.ENTITY_DELETE
+                : EntityNotification.EntityNotificationV2.OperationType.ENTITY_UPDATE;
+        EntityNotification.EntityNotificationV2 entityNotification = new EntityNotification.EntityNotificationV2(
+                atlasEntityHeader,
+                operationType,
+                System.currentTimeMillis()
+        );
+        String guid = atlasEntityHeader.getGuid();
+        try {
+            eventLanes.submit(guid, () -> {
+                try {
+                    processNotification(entityNotification, "catch-up " + operationType + " of " + guid);
+                } catch (RetrievalFailedException e) {
+                    log.error("Unable to retrieve modified Apache Atlas entity while catching up; it will be caught up again when next started: {}", guid, e);
+                    catchUpSync.recordFailure();
+                } catch (Exception e) {
+                    log.error("Unable to process modified Apache Atlas entity while catching up: {}", guid, e);
+                }
+            });
+        } catch (InterruptedException e) {
+            // Leave the interruption for the catch-up to notice, so that it is recorded as not having caught up
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Collapse the entity updates in the provided batch of events, so that each entity is updated only once for any
+     * run of consecutive updates to it. Since an update always sends out the latest state of the entity (retrieved
+     * from Apache Atlas at the time), only the last update in each run is kept; any other event for the same entity
+     * (a create, for example) ends the run, so that it remains ahead of the updates that followed it.
+     *
+     * @param events the batch of events, in the order received
+     * @return {@code List<ReceivedEvent>} of the events to process, in the order received
+     */
+    static List<ReceivedEvent> coalesceUpdates(List<ReceivedEvent> events) {
+        Set<String> updatedLater = new HashSet<>();
+        LinkedList<ReceivedEvent> coalesced = new LinkedList<>();
+        ListIterator<ReceivedEvent> iterator = events.listIterator(events.size());
+        while (iterator.hasPrevious()) {
+            ReceivedEvent event = iterator.previous();
+            EntityNotification.EntityNotificationV2 notification = event.getNotification();
+            String entityGuid = (notification == null || notification.getEntity() == null) ? null : notification.getEntity().getGuid();
+            if (entityGuid != null && notification.getOperationType() == EntityNotification.EntityNotificationV2.OperationType.ENTITY_UPDATE) {
+                if (!updatedLater.add(entityGuid)) {
+                    // A later update in the same run will send out the latest state of the entity
+                    continue;
+                }
+            } else if (entityGuid != null) {
+                updatedLater.remove(entityGuid);
+            }
+            coalesced.addFirst(event);
+        }
+        if (log.isDebugEnabled() && coalesced.size() < events.size()) {
+            log.debug("Coalesced {} Apache Atlas events into {}.", events.size(), coalesced.size());
+        }
+        return coalesced;
+    }
+
+    /**
+     * Set aside an event that could not be processed, so that it is not received again.
+     *
+     * @param event the event that could not be processed
+     * @param reason the reason it could not be processed
+     */
+    private void quarantine(ConsumerRecord<Long, String> event, Exception reason) {
+        log.error("Unable to process Apache Atlas event, quarantining it: {}", event.value(), reason);
+        deadLetterStore.quarantine(event.topic(), event.partition(), event.offset(), event.value(), reason);
+    }
+
+    /**
+     * Retrieve the key by which to order the provided Apache Atlas notification: the GUID of the entity or relationship
+     * that it concerns.
+     *
+     * @param entityNotification the Apache Atlas notification
+     * @return String
+     */
+    private String getEventKey(EntityNotification.EntityNotificationV2 entityNotification) {
+        String key = null;
         if (entityNotification != null) {
+            if (entityNotification.getEntity() != null) {
+                key = entityNotification.getEntity().getGuid();
+            } else if (entityNotification.getRelationship() != null) {
+                key = entityNotification.getRelationship().getGuid();
+            }
+        }
+        return key;
+    }
 
-            // TODO: create examples for and test commented-out operations
+    /**
+     * Process a notification received from Apache Atlas, sending out any OMRS events that result.
+     *
+     * @param entityNotification the deserialized Apache Atlas notification
+     * @param event the inbound event from which the notification was deserialized
+     */
+    private void processNotification(EntityNotification.EntityNotificationV2 entityNotification, String event) {
+        if (log.isInfoEnabled()) { log.info("Processing event: {}", event); }
+
+        if (entityNotification != null) {
 
             switch(entityNotification.getOperationType()) {
                 case ENTITY_CREATE:
-                    processNewEntity(entityNotification.getEntity());
+                    atlasRepositoryConnector.invalidateCachedEntity(entityNotification.getEntity().getGuid());
+                    processNewEntity(entityNotification);
                     break;
                 case ENTITY_UPDATE:
-                    processUpdatedEntity(entityNotification.getEntity());
+                    atlasRepositoryConnector.invalidateCachedEntity(entityNotification.getEntity().getGuid());
+                    processUpdatedEntity(entityNotification);
                     break;
-                /*case ENTITY_DELETE:
+                case ENTITY_DELETE:
+                    // Capture the last mapped state of the entity before it is invalidated, as the basis for the event
+                    Map<String, EntityDetail> deletedEntities = getCachedMappedEntities(entityNotification.getEntity());
+                    atlasRepositoryConnector.invalidateCachedEntity(entityNotification.getEntity().getGuid());
+                    processDeletedEntity(entityNotification, deletedEntities);
                     break;
                 case CLASSIFICATION_ADD:
-                    break;
                 case CLASSIFICATION_UPDATE:
-                    break;
                 case CLASSIFICATION_DELETE:
-                    break;*/
+                    atlasRepositoryConnector.invalidateCachedEntity(entityNotification.getEntity().getGuid());
+                    processReclassifiedEntity(entityNotification);
+                    break;
                 case RELATIONSHIP_CREATE:
-                    processNewRelationship(entityNotification.getRelationship());
+                    // The relationship also changes the relationship attributes of the entities at either end
+                    invalidateCachedEndpoints(entityNotification.getRelationship());
+                    processNewRelationship(entityNotification);
                     break;
-                /*case RELATIONSHIP_UPDATE:
+                case RELATIONSHIP_UPDATE:
+                    invalidateCachedEndpoints(entityNotification.getRelationship());
+                    processUpdatedRelationship(entityNotification);
                     break;
                 case RELATIONSHIP_DELETE:
-                    break;*/
+                    invalidateCachedEndpoints(entityNotification.getRelationship());
+                    processDeletedRelationship(entityNotification);
+                    break;
                 default:
                     log.warn("Unrecognized operation type from Apache Atlas: {}", event);
                     break;
@@ -270,37 +705,67 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
 
     }
 
+    /**
+     * Send on an OMRS event: through the emitter once the event mapper has started, or directly otherwise.
+     *
+     * @param event the sending of the OMRS event
+     */
+    private void emit(Runnable event) {
+        if (eventEmitter == null) {
+            event.run();
+        } else {
+            eventEmitter.emit(event);
+        }
+    }
+
+    /**
+     * Remove any cached details of the entities at either end of the provided Apache Atlas relationship.
+     *
+     * @param atlasRelationshipHeader the Apache Atlas relationship information
+     */
+    private void invalidateCachedEndpoints(AtlasRelationshipHeader atlasRelationshipHeader) {
+        if (atlasRelationshipHeader != null) {
+            if (atlasRelationshipHeader.getEnd1() != null) {
+                atlasRepositoryConnector.invalidateCachedEntity(atlasRelationshipHeader.getEnd1().getGuid());
+            }
+            if (atlasRelationshipHeader.getEnd2() != null) {
+                atlasRepositoryConnector.invalidateCachedEntity(atlasRelationshipHeader.getEnd2().getGuid());
+            }
+        }
+    }
+
     /**
      * Processes and sends an OMRS event for the new Apache Atlas entity.
      *
-     * @param atlasEntityHeader the new Apache Atlas entity information
+     * @param entityNotification the notification of the new Apache Atlas entity
      */
-    private void processNewEntity(AtlasEntityHeader atlasEntityHeader) {
+    private void processNewEntity(EntityNotification.EntityNotificationV2 entityNotification) {
         // Send an event for every entity: normal and generated
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
         String atlasTypeName = atlasEntityHeader.getTypeName();
         Map<String, String> omrsTypesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasTypeName);
         for (String prefix : omrsTypesByPrefix.keySet()) {
-            EntityDetail entityDetail = getMappedEntity(atlasEntityHeader, prefix);
+            EntityDetail entityDetail = getMappedEntity(entityNotification, prefix);
             if (entityDetail != null) {
-                repositoryEventProcessor.processNewEntityEvent(
+                emit(() -> repositoryEventProcessor.processNewEntityEvent(
                         sourceName,
                         metadataCollectionId,
                         originatorServerName,
                         originatorServerType,
                         localOrganizationName,
                         entityDetail
-                );
+                ));
                 if (prefix != null) {
                     List<Relationship> generatedRelationships = getGeneratedRelationshipsForEntity(atlasEntityHeader, entityDetail);
                     for (Relationship generatedRelationship : generatedRelationships) {
-                        repositoryEventProcessor.processNewRelationshipEvent(
+                        emit(() -> repositoryEventProcessor.processNewRelationshipEvent(
                                 sourceName,
                                 metadataCollectionId,
                                 originatorServerName,
                                 originatorServerType,
                                 localOrganizationName,
                                 generatedRelationship
-                        );
+                        ));
                     }
                 }
             }
@@ -310,16 +775,17 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
     /**
      * Processes and sends an OMRS event for the updated Apache Atlas entity.
      *
-     * @param atlasEntityHeader the updated Apache Atlas entity information
+     * @param entityNotification the notification of the updated Apache Atlas entity
      */
-    private void processUpdatedEntity(AtlasEntityHeader atlasEntityHeader) {
+    private void processUpdatedEntity(EntityNotification.EntityNotificationV2 entityNotification) {
         // Send an event for every entity: normal and generated
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
         Map<String, String> omrsTypesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasEntityHeader.getTypeName());
         for (String prefix : omrsTypesByPrefix.keySet()) {
-            EntityDetail entityDetail = getMappedEntity(atlasEntityHeader, prefix);
+            EntityDetail entityDetail = getMappedEntity(entityNotification, prefix);
             if (entityDetail != null) {
                 // TODO: find a way to pull back the old version to send in the update event
-                repositoryEventProcessor.processUpdatedEntityEvent(
+                emit(() -> repositoryEventProcessor.processUpdatedEntityEvent(
                         sourceName,
                         metadataCollectionId,
                         originatorServerName,
@@ -327,12 +793,12 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
                         localOrganizationName,
                         null,
                         entityDetail
-                );
+                ));
                 if (prefix != null) {
                     List<Relationship> generatedRelationships = getGeneratedRelationshipsForEntity(atlasEntityHeader, entityDetail);
                     for (Relationship generatedRelationship : generatedRelationships) {
                         // TODO: find a way to pull back the old version to send in the update event
-                        repositoryEventProcessor.processUpdatedRelationshipEvent(
+                        emit(() -> repositoryEventProcessor.processUpdatedRelationshipEvent(
                                 sourceName,
                                 metadataCollectionId,
                                 originatorServerName,
@@ -340,13 +806,161 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
                                 localOrganizationName,
                                 null,
                                 generatedRelationship
-                        );
+                        ));
                     }
                 }
             }
         }
     }
 
+    /**
+     * Processes and sends an OMRS event for the deleted Apache Atlas entity. The event is based on the deleted entity
+     * as retrieved from Apache Atlas (which keeps it, with its final version, unless it has been purged). Only if it is
+     * no longer retrievable is the event based instead on the last mapped state of the entity (if there is one), or
+     * otherwise on the entity header in the notification itself.
+     *
+     * @param entityNotification the notification of the deleted Apache Atlas entity
+     * @param previousEntities the last mapped state of the entity, keyed by prefix (for any that were available)
+     */
+    private void processDeletedEntity(EntityNotification.EntityNotificationV2 entityNotification,
+                                      Map<String, EntityDetail> previousEntities) {
+        // Send an event for every entity: normal and generated
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
+        Date eventTime = new Date(entityNotification.getEventTime());
+        AtlasEntity.AtlasEntityWithExtInfo atlasEntity;
+        try {
+            atlasEntity = atlasRepositoryConnector.retrieveEntityByGUID(atlasEntityHeader.getGuid(), false, true);
+        } catch (AtlasServiceException e) {
+            throw new RetrievalFailedException(atlasEntityHeader.getGuid(), e);
+        }
+        Map<String, String> omrsTypesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasEntityHeader.getTypeName());
+        for (String prefix : omrsTypesByPrefix.keySet()) {
+            EntityDetail entityDetail = previousEntities.get(prefix);
+            if (atlasEntity != null) {
+                entitiesMappedFromAtlas.incrementAndGet();
+                entityDetail = mapEntity(atlasEntity, prefix);
+            } else if (entityDetail != null) {
+                entitiesMappedFromNotifications.incrementAndGet();
+                setModificationDetails(entityDetail, eventTime);
+            } else {
+                entityDetail = getMappedEntityFromNotification(entityNotification, prefix);
+            }
+            if (entityDetail != null) {
+                entityDetail.setStatus(InstanceStatus.DELETED);
+                final EntityDetail deletedEntity = entityDetail;
+                emit(() -> repositoryEventProcessor.processDeletedEntityEvent(
+                        sourceName,
+                        metadataCollectionId,
+                        originatorServerName,
+                        originatorServerType,
+                        localOrganizationName,
+                        deletedEntity
+                ));
+                if (prefix != null) {
+                    List<Relationship> generatedRelationships = getGeneratedRelationshipsForEntity(atlasEntityHeader, deletedEntity);
+                    for (Relationship generatedRelationship : generatedRelationships) {
+                        generatedRelationship.setStatus(InstanceStatus.DELETED);
+                        emit(() -> repositoryEventProcessor.processDeletedRelationshipEvent(
+                                sourceName,
+                                metadataCollectionId,
+                                originatorServerName,
+                                originatorServerType,
+                                localOrganizationName,
+                                generatedRelationship
+                        ));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes and sends an OMRS event for the Apache Atlas entity whose classifications have changed: a classified,
+     * reclassified or declassified entity event, depending on the change. The entity is mapped in full (from the
+     * notification, if it includes everything needed, or otherwise as retrieved), so that the event carries the
+     * version of the entity with the change.
+     *
+     * @param entityNotification the notification of the classification change to the Apache Atlas entity
+     */
+    private void processReclassifiedEntity(EntityNotification.EntityNotificationV2 entityNotification) {
+        // Classifications are mapped onto every entity: normal and generated
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
+        Map<String, String> omrsTypesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasEntityHeader.getTypeName());
+        for (String prefix : omrsTypesByPrefix.keySet()) {
+            EntityDetail entityDetail = getMappedEntity(entityNotification, prefix);
+            if (entityDetail != null) {
+                switch (entityNotification.getOperationType()) {
+                    case CLASSIFICATION_ADD:
+                        emit(() -> repositoryEventProcessor.processClassifiedEntityEvent(
+                                sourceName,
+                                metadataCollectionId,
+                                originatorServerName,
+                                originatorServerType,
+                                localOrganizationName,
+                                entityDetail
+                        ));
+                        break;
+                    case CLASSIFICATION_UPDATE:
+                        emit(() -> repositoryEventProcessor.processReclassifiedEntityEvent(
+                                sourceName,
+                                metadataCollectionId,
+                                originatorServerName,
+                                originatorServerType,
+                                localOrganizationName,
+                                entityDetail
+                        ));
+                        break;
+                    case CLASSIFICATION_DELETE:
+                        emit(() -> repositoryEventProcessor.processDeclassifiedEntityEvent(
+                                sourceName,
+                                metadataCollectionId,
+                                originatorServerName,
+                                originatorServerType,
+                                localOrganizationName,
+                                entityDetail
+                        ));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve a copy of the last mapped state of every OMRS entity (normal and generated) for the provided Apache
+     * Atlas entity that is still cached, keyed by prefix.
+     *
+     * @param atlasEntityHeader the Apache Atlas entity header
+     * @return {@code Map<String, EntityDetail>}
+     */
+    private Map<String, EntityDetail> getCachedMappedEntities(AtlasEntityHeader atlasEntityHeader) {
+        Map<String, EntityDetail> cachedEntities = new HashMap<>();
+        Map<String, String> omrsTypesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasEntityHeader.getTypeName());
+        for (String prefix : omrsTypesByPrefix.keySet()) {
+            String cacheKey = EntityMappingAtlas2OMRS.getMappedCacheKey(atlasEntityHeader.getGuid(), prefix);
+            EntityDetail cached = atlasRepositoryConnector.getMappedEntityDetailCache().get(cacheKey);
+            if (cached != null) {
+                // Copied, as the cached entity may be shared with other threads
+                cachedEntities.put(prefix, new EntityDetail(cached));
+            }
+        }
+        return cachedEntities;
+    }
+
+    /**
+     * Record a change to the provided (previously-mapped) OMRS entity: moving it on to its next version, updated at
+     * the time of the notification of the change. Only for an entity that can no longer be retrieved from Apache Atlas,
+     * which therefore will never give it a next version of its own to collide with.
+     *
+     * @param entityDetail the OMRS entity that has changed
+     * @param eventTime the time of the notification of the change
+     */
+    private void setModificationDetails(EntityDetail entityDetail, Date eventTime) {
+        entityDetail.setVersion(entityDetail.getVersion() + 1);
+        entityDetail.setUpdateTime(eventTime);
+    }
+
     /**
      * Generate any pseudo-relationships for the provided entity.
      *
@@ -407,14 +1021,68 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
     }
 
     /**
-     * Retrieve the mapped OMRS entity for the provided Apache Atlas entity.
+     * Retrieve the mapped OMRS entity for the Apache Atlas entity in the provided notification: directly from the
+     * notification itself if it includes everything needed to map the entity, or otherwise by first retrieving the
+     * entity from Apache Atlas.
      *
-     * @param atlasEntityHeader the Apache Atlas entity to translate to OMRS
+     * @param entityNotification the notification of the Apache Atlas entity to translate to OMRS
+     * @param prefix the prefix of the (generated) OMRS entity to map, or null if not generated
      * @return EntityDetail
      */
-    private EntityDetail getMappedEntity(AtlasEntityHeader atlasEntityHeader, String prefix) {
+    private EntityDetail getMappedEntity(EntityNotification.EntityNotificationV2 entityNotification, String prefix) {
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
+        if (mapFromNotifications && canMapFromHeader(atlasEntityHeader, prefix)) {
+            AtlasEntity.AtlasEntityWithExtInfo fromNotification = getEntityFromNotification(entityNotification);
+            AtlasEntity notified = fromNotification.getEntity();
+            if (notified.getCreateTime() == null) {
+                // The notification does not say when (or by whom) the entity was created: keep what was last mapped
+                String cacheKey = EntityMappingAtlas2OMRS.getMappedCacheKey(atlasEntityHeader.getGuid(), prefix);
+                EntityDetail previous = atlasRepositoryConnector.getMappedEntityDetailCache().get(cacheKey);
+                if (previous != null) {
+                    notified.setCreatedBy(previous.getCreatedBy());
+                    notified.setCreateTime(previous.getCreateTime());
+                }
+            }
+            entitiesMappedFromNotifications.incrementAndGet();
+            return mapEntity(fromNotification, prefix);
+        }
+        AtlasEntity.AtlasEntityWithExtInfo atlasEntity;
+        try {
+            atlasEntity = atlasRepositoryConnector.retrieveEntityByGUID(atlasEntityHeader.getGuid(), false, true);
+        } catch (AtlasServiceException e) {
+            throw new RetrievalFailedException(atlasEntityHeader.getGuid(), e);
+        }
+        entitiesMappedFromAtlas.incrementAndGet();
+        if (atlasEntity == null) {
+            log.warn("Entity no longer exists in Apache Atlas, skipping: {}", atlasEntityHeader.getGuid());
+            return null;
+        }
+        return mapEntity(atlasEntity, prefix);
+    }
+
+    /**
+     * Retrieve the mapped OMRS entity for the Apache Atlas entity in the provided notification, directly from the
+     * notification itself (whether or not it includes everything needed to map the entity in full), for when the
+     * entity may no longer be retrievable from Apache Atlas.
+     *
+     * @param entityNotification the notification of the Apache Atlas entity to translate to OMRS
+     * @param prefix the prefix of the (generated) OMRS entity to map, or null if not generated
+     * @return EntityDetail
+     */
+    private EntityDetail getMappedEntityFromNotification(EntityNotification.EntityNotificationV2 entityNotification, String prefix) {
+        entitiesMappedFromNotifications.incrementAndGet();
+        return mapEntity(getEntityFromNotification(entityNotification), prefix);
+    }
+
+    /**
+     * Map the provided Apache Atlas entity to an OMRS entity.
+     *
+     * @param atlasEntity the Apache Atlas entity to translate to OMRS
+     * @param prefix the prefix of the (generated) OMRS entity to map, or null if not generated
+     * @return EntityDetail
+     */
+    private EntityDetail mapEntity(AtlasEntity.AtlasEntityWithExtInfo atlasEntity, String prefix) {
         EntityDetail result = null;
-        AtlasEntity.AtlasEntityWithExtInfo atlasEntity = atlasRepositoryConnector.getEntityByGUID(atlasEntityHeader.getGuid(), false, true, true);
         EntityMappingAtlas2OMRS mapping = new EntityMappingAtlas2OMRS(
                 atlasRepositoryConnector,
                 atlasMetadataCollection.getTypeDefStore(),
@@ -431,47 +1099,307 @@ public class ApacheAtlasOMRSRepositoryEventMapper extends OMRSRepositoryEventMap
         return result;
     }
 
+    /**
+     * Indicates whether the provided Apache Atlas entity header (from a notification) includes everything needed to
+     * map it to an OMRS entity with the provided prefix (true), or whether the entity must be retrieved (false): its
+     * status, and a value (even if empty) for every Apache Atlas attribute that is mapped to an OMRS property.
+     *
+     * @param atlasEntityHeader the Apache Atlas entity header
+     * @param prefix the prefix of the (generated) OMRS entity to map, or null if not generated
+     * @return boolean
+     */
+    private boolean canMapFromHeader(AtlasEntityHeader atlasEntityHeader, String prefix) {
+        if (atlasEntityHeader.getStatus() == null || atlasEntityHeader.getAttributes() == null) {
+            return false;
+        }
+        Map<String, String> atlasToOmrsProperties = typeDefStore.getPropertyMappingsForAtlasTypeDef(atlasEntityHeader.getTypeName(), prefix);
+        return atlasToOmrsProperties != null && atlasEntityHeader.getAttributes().keySet().containsAll(atlasToOmrsProperties.keySet());
+    }
+
+    /**
+     * Construct an Apache Atlas entity from the header in the provided notification. As the header does not include
+     * the entity's modification details, the time of the notification is used as its update time (and its creation
+     * time, if the notification is of a new entity), and so as its version: Apache Atlas gives the notification the
+     * time of the request that made the change, just as it does the entity's modification time, so this is the same
+     * version the entity has when retrieved. Who made the change is not known.
+     *
+     * @param entityNotification the notification of the Apache Atlas entity
+     * @return AtlasEntity.AtlasEntityWithExtInfo
+     */
+    private AtlasEntity.AtlasEntityWithExtInfo getEntityFromNotification(EntityNotification.EntityNotificationV2 entityNotification) {
+        AtlasEntityHeader atlasEntityHeader = entityNotification.getEntity();
+        Date eventTime = new Date(entityNotification.getEventTime());
+        Map<String, Object> attributes = atlasEntityHeader.getAttributes();
+        AtlasEntity atlasEntity = new AtlasEntity(atlasEntityHeader.getTypeName(), attributes == null ? new HashMap<>() : new HashMap<>(attributes));
+        atlasEntity.setGuid(atlasEntityHeader.getGuid());
+        atlasEntity.setStatus(atlasEntityHeader.getStatus());
+        atlasEntity.setClassifications(atlasEntityHeader.getClassifications());
+        atlasEntity.setVersion(entityNotification.getEventTime());
+        atlasEntity.setUpdateTime(eventTime);
+        if (entityNotification.getOperationType() == EntityNotification.EntityNotificationV2.OperationType.ENTITY_CREATE) {
+            atlasEntity.setCreateTime(eventTime);
+        }
+        return new AtlasEntity.AtlasEntityWithExtInfo(atlasEntity);
+    }
+
     /**
      * Processes and sends an OMRS event for the new Apache Atlas relationship.
      *
-     * @param atlasRelationshipHeader the new Apache Atlas relationship information
+     * @param entityNotification the notification of the new Apache Atlas relationship
      */
-    private void processNewRelationship(AtlasRelationshipHeader atlasRelationshipHeader) {
-        Relationship relationship = getMappedRelationship(atlasRelationshipHeader);
+    private void processNewRelationship(EntityNotification.EntityNotificationV2 entityNotification) {
+        Relationship relationship = getMappedRelationship(entityNotification, false);
         if (relationship != null) {
-            repositoryEventProcessor.processNewRelationshipEvent(
+            emit(() -> repositoryEventProcessor.processNewRelationshipEvent(
                     sourceName,
                     metadataCollectionId,
                     originatorServerName,
                     originatorServerType,
                     localOrganizationName,
                     relationship
-            );
+            ));
+        }
+    }
+
+    /**
+     * Processes and sends an OMRS event for the updated Apache Atlas relationship.
+     *
+     * @param entityNotification the notification of the updated Apache Atlas relationship
+     */
+    private void processUpdatedRelationship(EntityNotification.EntityNotificationV2 entityNotification) {
+        Relationship relationship = getMappedRelationship(entityNotification, false);
+        if (relationship != null) {
+            // TODO: find a way to pull back the old version to send in the update event
+            emit(() -> repositoryEventProcessor.processUpdatedRelationshipEvent(
+                    sourceName,
+                    metadataCollectionId,
+                    originatorServerName,
+                    originatorServerType,
+                    localOrganizationName,
+                    null,
+                    relationship
+            ));
+        }
+    }
+
+    /**
+     * Processes and sends an OMRS event for the deleted Apache Atlas relationship. As the relationship may no longer
+     * be retrievable from Apache Atlas, it is mapped from the notification itself wherever possible.
+     *
+     * @param entityNotification the notification of the deleted Apache Atlas relationship
+     */
+    private void processDeletedRelationship(EntityNotification.EntityNotificationV2 entityNotification) {
+        Relationship relationship = getMappedRelationship(entityNotification, true);
+        if (relationship != null) {
+            relationship.setStatus(InstanceStatus.DELETED);
+            emit(() -> repositoryEventProcessor.processDeletedRelationshipEvent(
+                    sourceName,
+                    metadataCollectionId,
+                    originatorServerName,
+                    originatorServerType,
+                    localOrganizationName,
+                    relationship
+            ));
         }
     }
 
     /**
-     * Retrieve the mapped OMRS relationship for the provided Apache Atlas relationship.
+     * Retrieve the mapped OMRS relationship for the Apache Atlas relationship in the provided notification: directly
+     * from the notification itself if it includes everything needed to map the relationship, or otherwise by first
+     * retrieving the relationship (and the entities at either end) from Apache Atlas.
      *
-     * @param atlasRelationshipHeader the Apache Atlas relationship to translate to OMRS
+     * @param entityNotification the notification of the Apache Atlas relationship to translate to OMRS
+     * @param preferNotification true to map from the notification whenever it is possible (even if mapping from
+     *                           notifications is not otherwise enabled), for when the relationship may no longer be
+     *                           retrievable from Apache Atlas
      * @return Relationship
      */
-    private Relationship getMappedRelationship(AtlasRelationshipHeader atlasRelationshipHeader) {
+    private Relationship getMappedRelationship(EntityNotification.EntityNotificationV2 entityNotification,
+                                               boolean preferNotification) {
         Relationship result = null;
-        AtlasRelationship.AtlasRelationshipWithExtInfo atlasRelationship = atlasRepositoryConnector.getRelationshipByGUID(atlasRelationshipHeader.getGuid(), true);
-        RelationshipMapping mapping = new RelationshipMapping(
+        AtlasRelationshipHeader atlasRelationshipHeader = entityNotification.getRelationship();
+        if ((mapFromNotifications || preferNotification) && canMapFromHeader(atlasRelationshipHeader)) {
+            relationshipsMappedFromNotifications.incrementAndGet();
+            Date eventTime = new Date(entityNotification.getEventTime());
+            boolean isNew = (entityNotification.getOperationType() == EntityNotification.EntityNotificationV2.OperationType.RELATIONSHIP_CREATE);
+            try {
+                // TODO: currently all mappings from Atlas RelationshipDef to OMRS RelationshipDef are one-to-n, so never a prefix
+                result = RelationshipMapping.getRelationship(
+                        atlasRepositoryConnector,
+                        atlasMetadataCollection.getTypeDefStore(),
+                        atlasMetadataCollection.getAttributeTypeDefStore(),
+                        atlasRelationshipHeader.getTypeName(),
+                        atlasRelationshipHeader.getGuid(),
+                        atlasRelationshipHeader.getStatus(),
+                        getEntityProxyFromObjectId(atlasRelationshipHeader.getEnd1()),
+                        getEntityProxyFromObjectId(atlasRelationshipHeader.getEnd2()),
+                        null,
+                        null,
+                        isNew ? eventTime : null,
+                        eventTime,
+                        atlasRelationshipHeader.getAttributes()
+                );
+            } catch (RepositoryErrorException e) {
+                log.error("Unable to map relationship to OMRS Relationship: {}", atlasRelationshipHeader, e);
+            }
+        } else {
+            relationshipsMappedFromAtlas.incrementAndGet();
+            AtlasRelationship.AtlasRelationshipWithExtInfo atlasRelationship;
+            try {
+                atlasRelationship = atlasRepositoryConnector.retrieveRelationshipByGUID(atlasRelationshipHeader.getGuid(), true);
+            } catch (AtlasServiceException e) {
+                throw new RetrievalFailedException(atlasRelationshipHeader.getGuid(), e);
+            }
+            if (atlasRelationship == null) {
+                log.warn("Relationship no longer exists in Apache Atlas, skipping: {}", atlasRelationshipHeader.getGuid());
+                return null;
+            }
+            RelationshipMapping mapping = new RelationshipMapping(
+                    atlasRepositoryConnector,
+                    atlasMetadataCollection.getTypeDefStore(),
+                    atlasMetadataCollection.getAttributeTypeDefStore(),
+                    atlasRelationship,
+                    null
+            );
+            try {
+                result = mapping.getRelationship();
+            } catch (RepositoryErrorException e) {
+                log.error("Unable to map relationship to OMRS Relationship: {}", atlasRelationship, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indicates whether the provided Apache Atlas relationship header (from a notification) includes everything needed
+     * to map it to an OMRS relationship (true), or whether the relationship must be retrieved (false): its status, the
+     * type, GUID and qualifiedName of the entity at each end, and a value (even if empty) for every Apache Atlas
+     * attribute that is mapped to an OMRS property.
+     *
+     * @param atlasRelationshipHeader the Apache Atlas relationship header
+     * @return boolean
+     */
+    private boolean canMapFromHeader(AtlasRelationshipHeader atlasRelationshipHeader) {
+        if (atlasRelationshipHeader.getStatus() == null
+                || !isIdentifiedByQualifiedName(atlasRelationshipHeader.getEnd1())
+                || !isIdentifiedByQualifiedName(atlasRelationshipHeader.getEnd2())) {
+            return false;
+        }
+        Map<String, String> atlasToOmrsProperties = typeDefStore.getPropertyMappingsForAtlasTypeDef(atlasRelationshipHeader.getTypeName(), null);
+        if (atlasToOmrsProperties == null || atlasToOmrsProperties.isEmpty()) {
+            return true;
+        }
+        Map<String, Object> attributes = atlasRelationshipHeader.getAttributes();
+        return attributes != null && attributes.keySet().containsAll(atlasToOmrsProperties.keySet());
+    }
+
+    /**
+     * Indicates whether the provided Apache Atlas object ID includes enough to construct an OMRS entity proxy from it.
+     *
+     * @param atlasObjectId the Apache Atlas object ID
+     * @return boolean
+     */
+    private static boolean isIdentifiedByQualifiedName(AtlasObjectId atlasObjectId) {
+        return atlasObjectId != null
+                && atlasObjectId.getGuid() != null
+                && atlasObjectId.getTypeName() != null
+                && atlasObjectId.getUniqueAttributes() != null
+                && atlasObjectId.getUniqueAttributes().get("qualifiedName") != null;
+    }
+
+    /**
+     * Construct an OMRS entity proxy from the provided Apache Atlas object ID. As the object ID does not include the
+     * entity's version or modification details, the proxy has the lowest version (so that it is superseded by any
+     * other details of the entity).
+     *
+     * @param atlasObjectId the Apache Atlas object ID
+     * @return EntityProxy
+     */
+    private EntityProxy getEntityProxyFromObjectId(AtlasObjectId atlasObjectId) {
+        AtlasEntity atlasEntity = new AtlasEntity(atlasObjectId.getTypeName(), new HashMap<>(atlasObjectId.getUniqueAttributes()));
+        atlasEntity.setGuid(atlasObjectId.getGuid());
+        atlasEntity.setVersion(0L);
+        // TODO: currently all mappings from Atlas RelationshipDef to OMRS RelationshipDef are one-to-n, so never a prefix
+        return RelationshipMapping.getEntityProxyForObject(
                 atlasRepositoryConnector,
-                atlasMetadataCollection.getTypeDefStore(),
-                atlasMetadataCollection.getAttributeTypeDefStore(),
-                atlasRelationship,
+                typeDefStore,
+                atlasEntity,
+                null,
                 null
         );
-        try {
-            result = mapping.getRelationship();
-        } catch (RepositoryErrorException e) {
-            log.error("Unable to map relationship to OMRS Relationship: {}", atlasRelationship, e);
+    }
+
+    /**
+     * Retrieve the loader bootstrapping the cohort with the entities already in Apache Atlas, if bootstrapping was
+     * requested.
+     *
+     * @return BootstrapLoader, or null if not bootstrapping
+     */
+    public BootstrapLoader getBootstrapLoader() { return bootstrapLoader; }
+
+    /**
+     * Retrieve the catch-up on changes missed in Apache Atlas, which also keeps track of the latest event processed.
+     *
+     * @return CatchUpSync
+     */
+    public CatchUpSync getCatchUpSync() { return catchUpSync; }
+
+    /**
+     * Retrieve the number of entities that were mapped directly from the notification received from Apache Atlas.
+     *
+     * @return long
+     */
+    public long getEntitiesMappedFromNotifications() { return entitiesMappedFromNotifications.get(); }
+
+    /**
+     * Retrieve the number of entities that had to be retrieved from Apache Atlas to be mapped.
+     *
+     * @return long
+     */
+    public long getEntitiesMappedFromAtlas() { return entitiesMappedFromAtlas.get(); }
+
+    /**
+     * Retrieve the number of relationships that were mapped directly from the notification received from Apache Atlas.
+     *
+     * @return long
+     */
+    public long getRelationshipsMappedFromNotifications() { return relationshipsMappedFromNotifications.get(); }
+
+    /**
+     * Retrieve the number of relationships that had to be retrieved from Apache Atlas to be mapped.
+     *
+     * @return long
+     */
+    public long getRelationshipsMappedFromAtlas() { return relationshipsMappedFromAtlas.get(); }
+
+    /**
+     * An event received from Kafka, along with the Apache Atlas notification deserialized from it.
+     */
+    static final class ReceivedEvent {
+
+        private final ConsumerRecord<Long, String> record;
+        private final EntityNotification.EntityNotificationV2 notification;
+
+        ReceivedEvent(ConsumerRecord<Long, String> record, EntityNotification.EntityNotificationV2 notification) {
+            this.record = record;
+            this.notification = notification;
         }
-        return result;
+
+        ConsumerRecord<Long, String> getRecord() { return record; }
+        EntityNotification.EntityNotificationV2 getNotification() { return notification; }
+
+    }
+
+    /**
+     * A failure to retrieve an instance from Apache Atlas while processing an event: not a problem with the event
+     * itself, so the event should be processed again later rather than quarantined.
+     */
+    private static final class RetrievalFailedException extends RuntimeException {
+
+        RetrievalFailedException(String guid, AtlasServiceException cause) {
+            super("Unable to retrieve instance from Apache Atlas: " + guid, cause);
+        }
+
     }
 
 }
@@ -0,0 +1,158 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Gathers the OMRS events produced by the event mapper and sends them on from a thread of its own, in groups, so that
+ * the threads mapping events from Apache Atlas need not wait for each OMRS event to be sent. Events are always sent in
+ * the order they were gathered. A group is sent as soon as it reaches the maximum size, or once its first event has
+ * waited for the linger time (whichever comes first), or whenever the events gathered so far are flushed.
+ */
+public class BatchingEventEmitter {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingEventEmitter.class);
+
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final Thread thread;
+
+    private final Object monitor = new Object();
+    private final LinkedList<Runnable> pending = new LinkedList<>();
+    private long firstPendingAt = 0;
+    private long gathered = 0;
+    private long sent = 0;
+    private boolean flushRequested = false;
+    private volatile boolean running = true;
+
+    /**
+     * Create and start a new emitter.
+     *
+     * @param name the name to give the thread of the emitter
+     * @param maxBatchSize the maximum number of events to send in a single group
+     * @param lingerMillis the number of milliseconds for which to wait for further events to add to a group before
+     *                     sending it (0 or less to send whatever has been gathered as soon as possible)
+     */
+    public BatchingEventEmitter(String name, int maxBatchSize, long lingerMillis) {
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.lingerMillis = Math.max(lingerMillis, 0);
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gather an event to be sent.
+     *
+     * @param event the sending of the event
+     */
+    public void emit(Runnable event) {
+        synchronized (monitor) {
+            if (pending.isEmpty()) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+            pending.add(event);
+            gathered++;
+            // Wake the sender for the first event of a group too, so that it starts waiting out the linger time
+            if (pending.size() == 1 || pending.size() >= maxBatchSize || lingerMillis == 0) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Send all of the events gathered so far, waiting until they have been sent.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        synchronized (monitor) {
+            long target = gathered;
+            flushRequested = true;
+            monitor.notifyAll();
+            while (sent < target && running) {
+                monitor.wait();
+            }
+        }
+    }
+
+    /**
+     * Send any events still gathered, and then stop.
+     *
+     * @throws InterruptedException if interrupted while waiting for the events to be sent
+     */
+    public void shutdown() throws InterruptedException {
+        flush();
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Send each group of events as it becomes due, until stopped.
+     */
+    private void run() {
+        while (running) {
+            List<Runnable> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                break;
+            }
+            for (Runnable event : batch) {
+                try {
+                    event.run();
+                } catch (Exception e) {
+                    log.error("Failed to send OMRS event.", e);
+                }
+            }
+            synchronized (monitor) {
+                sent += batch.size();
+                monitor.notifyAll();
+            }
+        }
+        synchronized (monitor) {
+            running = false;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Wait for the next group of events to become due, and then take it.
+     *
+     * @return {@code List<Runnable>}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private List<Runnable> nextBatch() throws InterruptedException {
+        synchronized (monitor) {
+            while (true) {
+                if (!pending.isEmpty()) {
+                    long waited = System.currentTimeMillis() - firstPendingAt;
+                    if (flushRequested || pending.size() >= maxBatchSize || waited >= lingerMillis) {
+                        break;
+                    }
+                    monitor.wait(lingerMillis - waited);
+                } else {
+                    flushRequested = false;
+                    monitor.wait();
+                }
+            }
+            List<Runnable> batch = new ArrayList<>();
+            while (!pending.isEmpty() && batch.size() < maxBatchSize) {
+                batch.add(pending.removeFirst());
+            }
+            if (pending.isEmpty()) {
+                flushRequested = false;
+            } else {
+                firstPendingAt = System.currentTimeMillis();
+            }
+            return batch;
+        }
+    }
+
+}
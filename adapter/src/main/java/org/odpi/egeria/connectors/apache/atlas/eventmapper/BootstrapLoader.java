@@ -0,0 +1,245 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSMetadataCollection;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.EntityDetailCursor;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Walks every entity in Apache Atlas (of every mapped type), handing each one on to be sent out to the cohort as a
+ * refresh event, so that the other members of the cohort learn about the entities that already existed before the
+ * event mapper started. The walk is partitioned by mapped Apache Atlas type, with several types walked in parallel
+ * (each through its own EntityDetailCursor, over exactly that type so that every entity is retrieved only once), and
+ * each entity is handed on as every OMRS entity (normal and generated) mapped from it. The rate at which entities are
+ * handed on is limited so that Apache Atlas is not overwhelmed.
+ *
+ * The position reached in each type is checkpointed to a local file after every page of entities, so that after a
+ * restart the walk resumes from where it left off rather than starting again. Once every type has been walked, the
+ * checkpoint records that, and later starts do nothing (until the checkpoint file is removed).
+ */
+public class BootstrapLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BootstrapLoader.class);
+
+    private static final String COMPLETE = "*";
+
+    private final ApacheAtlasOMRSMetadataCollection metadataCollection;
+    private final String userId;
+    private final Path checkpointFile;
+    private final int parallelism;
+    private final int pageSize;
+    private final int entitiesPerSecond;
+    private final Listener listener;
+
+    private final Properties checkpoint = new Properties();
+    private final Object pacingMonitor = new Object();
+    private long nextPermitAt = 0;
+    private final AtomicLong entitiesLoaded = new AtomicLong(0);
+
+    private ExecutorService executor;
+    private volatile boolean running = false;
+
+    /**
+     * Receives each entity walked by the loader.
+     */
+    public interface Listener {
+
+        /**
+         * Send out a refresh event for the provided entity.
+         *
+         * @param entityDetail the entity to refresh
+         */
+        void refresh(EntityDetail entityDetail);
+
+        /**
+         * Wait until every refresh event requested so far has been sent (before the position reached is checkpointed).
+         *
+         * @throws InterruptedException if interrupted while waiting
+         */
+        void flush() throws InterruptedException;
+
+    }
+
+    /**
+     * Create a new loader.
+     *
+     * @param metadataCollection the metadata collection through which to walk the entities in Apache Atlas
+     * @param userId the user through which to walk the entities
+     * @param checkpointFile the name of the local file in which to checkpoint the position reached in each type
+     * @param parallelism the number of types to walk in parallel
+     * @param pageSize the number of entities to retrieve from Apache Atlas at a time
+     * @param entitiesPerSecond the maximum number of entities to hand on per second (0 or less for no limit)
+     * @param listener the listener to which to hand each entity
+     */
+    public BootstrapLoader(ApacheAtlasOMRSMetadataCollection metadataCollection,
+                           String userId,
+                           String checkpointFile,
+                           int parallelism,
+                           int pageSize,
+                           int entitiesPerSecond,
+                           Listener listener) {
+        this.metadataCollection = metadataCollection;
+        this.userId = userId;
+        this.checkpointFile = Paths.get(checkpointFile);
+        this.parallelism = Math.max(parallelism, 1);
+        this.pageSize = Math.max(pageSize, 1);
+        this.entitiesPerSecond = entitiesPerSecond;
+        this.listener = listener;
+    }
+
+    /**
+     * Start walking (or carry on walking) the entities in Apache Atlas, in the background.
+     */
+    public void start() {
+        loadCheckpoint();
+        Set<String> remainingTypes = TypeWalkUtils.getMappedAtlasEntityTypeNames(metadataCollection);
+        remainingTypes.removeIf(atlasTypeName -> COMPLETE.equals(checkpoint.getProperty(atlasTypeName)));
+        if (remainingTypes.isEmpty()) {
+            if (log.isInfoEnabled()) { log.info("Bootstrap of Apache Atlas entities already complete, per {}.", checkpointFile); }
+            return;
+        }
+        if (log.isInfoEnabled()) { log.info("Bootstrapping Apache Atlas entities of {} types, {} at a time.", remainingTypes.size(), parallelism); }
+        running = true;
+        executor = TypeWalkUtils.newWalkExecutor("ApacheAtlasBootstrap", parallelism);
+        for (String atlasTypeName : remainingTypes) {
+            executor.submit(() -> loadType(atlasTypeName));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Stop walking the entities in Apache Atlas: the position reached in each type remains checkpointed, so that the
+     * walk can carry on from there when next started.
+     *
+     * @param timeoutMillis the number of milliseconds to wait for the walk to stop
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Indicates whether the loader is still walking entities.
+     *
+     * @return boolean
+     */
+    public boolean isRunning() {
+        return running && executor != null && !executor.isTerminated();
+    }
+
+    /**
+     * Retrieve the number of entities handed on so far (since the loader was started).
+     *
+     * @return long
+     */
+    public long getEntitiesLoaded() { return entitiesLoaded.get(); }
+
+    /**
+     * Walk all of the entities of a single Apache Atlas type, carrying on from its checkpointed position (if any).
+     *
+     * @param typeName the name of the Apache Atlas type to walk
+     */
+    private void loadType(String typeName) {
+        String continuationToken;
+        synchronized (checkpoint) {
+            continuationToken = checkpoint.getProperty(typeName);
+        }
+        long loaded = 0;
+        try (EntityDetailCursor cursor = metadataCollection.getEntityDetailCursorForAtlasType(userId,
+                typeName,
+                pageSize,
+                continuationToken)) {
+            int sinceCheckpoint = 0;
+            while (running && cursor.hasNext()) {
+                EntityDetail entityDetail = cursor.next();
+                acquirePermit();
+                listener.refresh(entityDetail);
+                entitiesLoaded.incrementAndGet();
+                loaded++;
+                if (++sinceCheckpoint >= pageSize) {
+                    saveCheckpoint(typeName, cursor.getContinuationToken());
+                    sinceCheckpoint = 0;
+                }
+            }
+            if (running) {
+                saveCheckpoint(typeName, cursor.getContinuationToken());
+                if (log.isInfoEnabled()) { log.info("Bootstrapped {} Apache Atlas entities of type {}.", loaded, typeName); }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Unable to bootstrap entities of type {}, will carry on from its last checkpoint when next started.", typeName, e);
+        }
+    }
+
+    /**
+     * Wait until the rate limit allows another entity to be handed on.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void acquirePermit() throws InterruptedException {
+        if (entitiesPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (pacingMonitor) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(nextPermitAt, now);
+            nextPermitAt = permitAt + TimeUnit.SECONDS.toNanos(1) / entitiesPerSecond;
+            waitNanos = permitAt - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Load the position reached in each type from the checkpoint file, if there is one.
+     */
+    private void loadCheckpoint() {
+        synchronized (checkpoint) {
+            checkpoint.clear();
+            if (Files.exists(checkpointFile)) {
+                try (InputStream in = Files.newInputStream(checkpointFile)) {
+                    checkpoint.load(in);
+                    if (log.isInfoEnabled()) { log.info("Resuming bootstrap of Apache Atlas entities from {}.", checkpointFile); }
+                } catch (IOException e) {
+                    log.error("Unable to read bootstrap checkpoint {}, starting from the beginning.", checkpointFile, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checkpoint the position reached in a type, once every entity handed on up to that position has been sent.
+     *
+     * @param typeName the name of the Apache Atlas type
+     * @param continuationToken the position reached in the type (or null if it has been walked completely)
+     * @throws InterruptedException if interrupted while waiting for the entities handed on to be sent
+     */
+    private void saveCheckpoint(String typeName, String continuationToken) throws InterruptedException {
+        listener.flush();
+        synchronized (checkpoint) {
+            checkpoint.setProperty(typeName, continuationToken == null ? COMPLETE : continuationToken);
+            TypeWalkUtils.storeProperties(checkpoint, checkpointFile, "Apache Atlas bootstrap checkpoint");
+        }
+    }
+
+}
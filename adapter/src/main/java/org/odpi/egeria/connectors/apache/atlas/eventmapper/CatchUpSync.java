@@ -0,0 +1,216 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSMetadataCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a watermark of the time of the latest event from Apache Atlas that has been processed, persisted to a local
+ * file, and can catch up on everything that changed in Apache Atlas since then: for example, after an outage of Kafka
+ * or once the events missed have already expired from it. Catching up retrieves only those entities modified since the
+ * watermark (for every mapped Apache Atlas type, several types at a time), so it costs in proportion to how much has
+ * changed rather than to the size of the whole catalogue. Each modified entity is handed on to be processed just as if
+ * a notification of its change had been received. Only entities modified up to the time the catch-up started are
+ * caught up: any modified after that are notified to (and processed from) Kafka as usual.
+ *
+ * While catching up (or if catching up on any type fails), the watermark is not persisted: so that, after a restart,
+ * catching up starts again from the same watermark rather than missing the changes that were not caught up.
+ */
+public class CatchUpSync {
+
+    private static final Logger log = LoggerFactory.getLogger(CatchUpSync.class);
+
+    private static final String WATERMARK = "watermark";
+
+    private final ApacheAtlasOMRSMetadataCollection metadataCollection;
+    private final Path watermarkFile;
+    private final int parallelism;
+    private final int pageSize;
+
+    private final AtomicLong watermark = new AtomicLong(0);
+    private volatile long savedWatermark = 0;
+    private volatile boolean caughtUp = true;
+    private final AtomicInteger typesRemaining = new AtomicInteger(0);
+    private volatile boolean failed = false;
+
+    private ExecutorService executor;
+    private volatile boolean running = false;
+
+    /**
+     * Create a new catch-up, starting from the watermark persisted in the provided file (if there is one).
+     *
+     * @param metadataCollection the metadata collection through which to retrieve the modified entities
+     * @param watermarkFile the name of the local file in which to persist the watermark
+     * @param parallelism the number of Apache Atlas types for which to retrieve modified entities in parallel
+     * @param pageSize the number of modified entities to retrieve from Apache Atlas at a time
+     */
+    public CatchUpSync(ApacheAtlasOMRSMetadataCollection metadataCollection,
+                       String watermarkFile,
+                       int parallelism,
+                       int pageSize) {
+        this.metadataCollection = metadataCollection;
+        this.watermarkFile = Paths.get(watermarkFile);
+        this.parallelism = Math.max(parallelism, 1);
+        this.pageSize = Math.max(pageSize, 1);
+        loadWatermark();
+    }
+
+    /**
+     * Retrieve the current watermark: the time of the latest event from Apache Atlas that has been processed.
+     *
+     * @return long milliseconds since the epoch, or 0 if no event has ever been processed
+     */
+    public long getWatermark() { return watermark.get(); }
+
+    /**
+     * Move the watermark on to the time of a processed event, if that is later than the current watermark.
+     *
+     * @param eventTime the time of the processed event
+     */
+    public void advanceWatermark(long eventTime) {
+        watermark.accumulateAndGet(eventTime, Math::max);
+    }
+
+    /**
+     * Persist the current watermark to the local file, if it has moved on since it was last persisted (and there is
+     * no catch-up in progress or failed).
+     */
+    public synchronized void saveWatermark() {
+        long current = watermark.get();
+        if (!caughtUp || current <= savedWatermark) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(WATERMARK, String.valueOf(current));
+        if (TypeWalkUtils.storeProperties(properties, watermarkFile, "Apache Atlas event watermark")) {
+            savedWatermark = current;
+        }
+    }
+
+    /**
+     * Start catching up, in the background, on every entity modified since the watermark. Does nothing if there is
+     * no watermark yet (in which case there is nothing to catch up from).
+     *
+     * @param processor the processing of each modified entity (called from several threads at once)
+     */
+    public void start(Consumer<AtlasEntityHeader> processor) {
+        long modifiedAfter = watermark.get();
+        if (modifiedAfter <= 0) {
+            if (log.isInfoEnabled()) { log.info("No event watermark in {}, so nothing to catch up on.", watermarkFile); }
+            return;
+        }
+        Set<String> atlasTypeNames = TypeWalkUtils.getMappedAtlasEntityTypeNames(metadataCollection);
+        long modifiedBy = System.currentTimeMillis();
+        if (log.isInfoEnabled()) { log.info("Catching up on Apache Atlas entities of {} types modified since {}.", atlasTypeNames.size(), new Date(modifiedAfter)); }
+        caughtUp = atlasTypeNames.isEmpty();
+        typesRemaining.set(atlasTypeNames.size());
+        running = true;
+        executor = TypeWalkUtils.newWalkExecutor("ApacheAtlasCatchUp", parallelism);
+        for (String atlasTypeName : atlasTypeNames) {
+            executor.submit(() -> catchUpType(atlasTypeName, modifiedAfter, modifiedBy, processor));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Stop catching up.
+     *
+     * @param timeoutMillis the number of milliseconds to wait for the catch-up to stop
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Indicates whether the catch-up is still in progress.
+     *
+     * @return boolean
+     */
+    public boolean isRunning() {
+        return running && executor != null && !executor.isTerminated();
+    }
+
+    /**
+     * Catch up on the entities of a single Apache Atlas type modified within the provided window of time.
+     *
+     * @param atlasTypeName the name of the Apache Atlas type
+     * @param modifiedAfter the time after which to catch up on modified entities
+     * @param modifiedBy the time by which to catch up on modified entities
+     * @param processor the processing of each modified entity
+     */
+    private void catchUpType(String atlasTypeName, long modifiedAfter, long modifiedBy, Consumer<AtlasEntityHeader> processor) {
+        String afterGuid = null;
+        int processed = 0;
+        try {
+            List<AtlasEntityHeader> page;
+            do {
+                page = metadataCollection.findEntityHeadersModifiedSince(atlasTypeName, modifiedAfter, modifiedBy, afterGuid, pageSize);
+                for (AtlasEntityHeader header : page) {
+                    processor.accept(header);
+                    processed++;
+                    afterGuid = header.getGuid();
+                }
+            } while (running && !Thread.currentThread().isInterrupted() && page.size() >= pageSize);
+            if (log.isInfoEnabled() && processed > 0) { log.info("Caught up on {} modified Apache Atlas entities of type {}.", processed, atlasTypeName); }
+            if (!running || Thread.currentThread().isInterrupted()) {
+                failed = true;
+            }
+        } catch (Exception e) {
+            failed = true;
+            log.error("Unable to catch up on modified entities of type {}; they will be caught up again when next started.", atlasTypeName, e);
+        }
+        synchronized (this) {
+            if (typesRemaining.decrementAndGet() == 0 && !failed) {
+                if (log.isInfoEnabled()) { log.info("Caught up on all modified Apache Atlas entities."); }
+                caughtUp = true;
+            }
+        }
+    }
+
+    /**
+     * Record that an entity modified since the watermark could not be processed, so that the watermark is no longer
+     * persisted and the entity is caught up again when next started.
+     */
+    public synchronized void recordFailure() {
+        failed = true;
+        caughtUp = false;
+    }
+
+    /**
+     * Load the watermark from the local file, if there is one.
+     */
+    private void loadWatermark() {
+        if (Files.exists(watermarkFile)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(watermarkFile)) {
+                properties.load(in);
+                long persisted = Long.parseLong(properties.getProperty(WATERMARK, "0"));
+                watermark.set(persisted);
+                savedWatermark = persisted;
+            } catch (IOException | NumberFormatException e) {
+                log.error("Unable to read event watermark {}, ignoring it.", watermarkFile, e);
+            }
+        }
+    }
+
+}
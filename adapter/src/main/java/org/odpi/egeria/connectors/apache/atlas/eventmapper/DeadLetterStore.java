@@ -0,0 +1,76 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.apache.atlas.utils.AtlasJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a record, in a local file, of any events from Apache Atlas that could not be processed, so that they can be
+ * skipped (rather than retried forever) and yet investigated or replayed later. Each event is appended to the file as
+ * a single line of JSON, along with where it was read from and the reason it could not be processed.
+ */
+public class DeadLetterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private final Path file;
+
+    /**
+     * Create a new store, appending to the provided file (which is created if it does not already exist).
+     *
+     * @param fileName the name of the file in which to record events
+     */
+    public DeadLetterStore(String fileName) {
+        this.file = Paths.get(fileName);
+    }
+
+    /**
+     * Retrieve the file in which events are recorded.
+     *
+     * @return Path
+     */
+    public Path getFile() { return file; }
+
+    /**
+     * Record an event that could not be processed.
+     *
+     * @param topic the name of the topic from which the event was read
+     * @param partition the partition from which the event was read
+     * @param offset the offset of the event within its partition
+     * @param event the event itself
+     * @param reason the reason the event could not be processed
+     */
+    public synchronized void quarantine(String topic, int partition, long offset, String event, Throwable reason) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("quarantinedAt", System.currentTimeMillis());
+        entry.put("topic", topic);
+        entry.put("partition", partition);
+        entry.put("offset", offset);
+        entry.put("reason", reason == null ? null : reason.toString());
+        entry.put("event", event);
+        String line = AtlasJson.toJson(entry);
+        try {
+            Files.write(file,
+                    Collections.singletonList(line),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            if (log.isWarnEnabled()) { log.warn("Quarantined Apache Atlas event from {}-{} at offset {} to {}.", topic, partition, offset, file); }
+        } catch (IOException e) {
+            log.error("Unable to quarantine Apache Atlas event to {}, skipping it: {}", file, line, e);
+        }
+    }
+
+}
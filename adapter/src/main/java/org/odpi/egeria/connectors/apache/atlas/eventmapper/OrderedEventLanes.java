@@ -0,0 +1,168 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Processes events on a fixed number of lanes, each with its own thread, so that events can be processed in parallel.
+ * Every event is submitted with a key (for example the GUID of the instance it concerns), and all of the events with
+ * the same key are always processed on the same lane, in the order in which they were submitted. Each lane queues at
+ * most a fixed number of events: once full, submitting another event to that lane waits until there is room.
+ *
+ * The lanes keep count of the events that have been submitted but not yet fully processed, so that it is possible to
+ * wait until every event submitted so far has been processed (for example, before acknowledging them).
+ */
+public class OrderedEventLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderedEventLanes.class);
+
+    private final List<Lane> lanes;
+    private final Object idleMonitor = new Object();
+    private int inFlight = 0;
+
+    /**
+     * Create and start a new set of lanes.
+     *
+     * @param name the name to give the thread of each lane (suffixed by the number of the lane)
+     * @param numberOfLanes the number of lanes on which to process events
+     * @param queueSize the maximum number of events to queue on each lane
+     */
+    public OrderedEventLanes(String name, int numberOfLanes, int queueSize) {
+        this.lanes = new ArrayList<>();
+        for (int i = 0; i < numberOfLanes; i++) {
+            Lane lane = new Lane(queueSize, this);
+            Thread thread = new Thread(lane, name + "-" + (i + 1));
+            thread.setDaemon(true);
+            lane.setThread(thread);
+            lanes.add(lane);
+            thread.start();
+        }
+    }
+
+    /**
+     * Submit an event to be processed on the lane for the provided key, waiting for room on that lane if it is full.
+     *
+     * @param key the key that determines the lane on which to process the event (or null to use the first lane)
+     * @param event the processing of the event
+     * @throws InterruptedException if interrupted while waiting for room on the lane
+     */
+    public void submit(String key, Runnable event) throws InterruptedException {
+        int index = key == null ? 0 : Math.floorMod(key.hashCode(), lanes.size());
+        synchronized (idleMonitor) {
+            inFlight++;
+        }
+        try {
+            lanes.get(index).getQueue().put(event);
+        } catch (InterruptedException e) {
+            finished();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until every event submitted so far has been processed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitIdle() throws InterruptedException {
+        synchronized (idleMonitor) {
+            while (inFlight > 0) {
+                idleMonitor.wait();
+            }
+        }
+    }
+
+    /**
+     * Record that the processing of an event has finished (successfully or not).
+     */
+    private void finished() {
+        synchronized (idleMonitor) {
+            inFlight--;
+            if (inFlight <= 0) {
+                idleMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of lanes on which events are processed.
+     *
+     * @return int
+     */
+    public int getNumberOfLanes() { return lanes.size(); }
+
+    /**
+     * Retrieve the number of events currently waiting to be processed, across all lanes.
+     *
+     * @return int
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Lane lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    /**
+     * Stop processing events on every lane, discarding any that are still queued.
+     */
+    public void shutdown() {
+        for (Lane lane : lanes) {
+            lane.getQueue().clear();
+            lane.getThread().interrupt();
+        }
+        synchronized (idleMonitor) {
+            inFlight = 0;
+            idleMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * A single lane, processing its queued events one at a time in the order they were queued.
+     */
+    private static final class Lane implements Runnable {
+
+        private final BlockingQueue<Runnable> queue;
+        private final OrderedEventLanes lanes;
+        private Thread thread;
+
+        Lane(int queueSize, OrderedEventLanes lanes) {
+            this.queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+            this.lanes = lanes;
+        }
+
+        BlockingQueue<Runnable> getQueue() { return queue; }
+        Thread getThread() { return thread; }
+        void setThread(Thread thread) { this.thread = thread; }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Runnable event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                try {
+                    event.run();
+                } catch (Exception e) {
+                    log.error("Failed to process Apache Atlas event.", e);
+                } finally {
+                    lanes.finished();
+                }
+            }
+        }
+
+    }
+
+}
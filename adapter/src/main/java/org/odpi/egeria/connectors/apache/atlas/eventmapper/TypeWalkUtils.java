@@ -0,0 +1,100 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSMetadataCollection;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDef;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Common pieces of the background walks of Apache Atlas by type (the bootstrap and the catch-up): which types to walk,
+ * the threads on which to walk them, and the persisting of how far the walk has got.
+ */
+public class TypeWalkUtils {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeWalkUtils.class);
+
+    private TypeWalkUtils() {
+        // Only static methods
+    }
+
+    /**
+     * Retrieve the names of every Apache Atlas entity type to which some OMRS entity type is mapped, each only once
+     * and in order of name.
+     *
+     * @param metadataCollection the metadata collection whose type mappings to use
+     * @return {@code Set<String>}
+     */
+    public static Set<String> getMappedAtlasEntityTypeNames(ApacheAtlasOMRSMetadataCollection metadataCollection) {
+        Set<String> atlasTypeNames = new TreeSet<>();
+        for (TypeDef typeDef : metadataCollection.getTypeDefStore().getAllTypeDefs()) {
+            if (typeDef.getCategory() == TypeDefCategory.ENTITY_DEF) {
+                Map<String, String> mapped = metadataCollection.getTypeDefStore().getAllMappedAtlasTypeDefNames(typeDef.getName());
+                if (mapped != null) {
+                    atlasTypeNames.addAll(mapped.values());
+                }
+            }
+        }
+        return atlasTypeNames;
+    }
+
+    /**
+     * Create an executor with a fixed number of (daemon) threads on which to walk types, so that it never prevents
+     * the JVM from stopping.
+     *
+     * @param name the name to use as the prefix for each thread of the executor
+     * @param threads the number of threads for the executor
+     * @return ExecutorService
+     */
+    public static ExecutorService newWalkExecutor(String name, int threads) {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Persist the provided properties to a local file, by writing them to a separate file and then moving that into
+     * place, so that the file is never left half-written.
+     *
+     * @param properties the properties to persist
+     * @param file the file in which to persist them
+     * @param description a description of the properties, for the file's header comment and for logging
+     * @return boolean true if the properties were persisted, false otherwise
+     */
+    public static boolean storeProperties(Properties properties, Path file, String description) {
+        Path inProgress = Paths.get(file.toString() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(inProgress)) {
+            properties.store(out, description);
+        } catch (IOException e) {
+            log.error("Unable to write {} {}.", description, inProgress, e);
+            return false;
+        }
+        try {
+            Files.move(inProgress, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.error("Unable to replace {} {}.", description, file, e);
+            return false;
+        }
+    }
+
+}
@@ -26,6 +26,22 @@ public enum ApacheAtlasOMRSErrorCode {
             "The instance supplied to method \"{0}\" on repository \"{1}\" with guid \"{2}\" is already present, but not as a reference",
             "The system cannot persist this instance as a reference when it already exists as a non-reference.",
             "Check for the source of the conflict for this instance's GUID."),
+    SEARCH_TIMEOUT(500, "OMRS-ATLAS-REPOSITORY-500-006 ",
+            "The search requested by method \"{0}\" on repository \"{1}\" did not complete within {2} seconds",
+            "The system was unable to retrieve all of the results of the search from Apache Atlas in the time allowed.",
+            "Check the load on the Apache Atlas environment, narrow the search criteria, or increase the search timeout of the connector."),
+    CURSOR_PAGE_FAILURE(500, "OMRS-ATLAS-REPOSITORY-500-007 ",
+            "The next page of results for the cursor opened by method \"{0}\" on repository \"{1}\" could not be retrieved",
+            "The system was unable to retrieve the next page of results from Apache Atlas.",
+            "Check the logs of the connector and of the underlying Apache Atlas repository, and then carry on from the cursor's last continuation token."),
+    MODIFIED_SEARCH_FAILURE(500, "OMRS-ATLAS-REPOSITORY-500-008 ",
+            "The entities of type \"{0}\" modified since {1} could not be retrieved from repository \"{2}\"",
+            "The system was unable to retrieve the recently-modified entities from Apache Atlas.",
+            "Check the logs of the connector and of the underlying Apache Atlas repository, and then retry the catch-up."),
+    CLASSIFIED_SEARCH_FAILURE(500, "OMRS-ATLAS-REPOSITORY-500-009 ",
+            "The entities of type \"{0}\" classified by \"{1}\" could not be searched by method \"{2}\" on repository \"{3}\"",
+            "The system was unable to retrieve the next batch of classified entities from Apache Atlas.",
+            "Check the logs of the connector and of the underlying Apache Atlas repository, and then retry the search."),
     REGEX_NOT_IMPLEMENTED(501, "OMRS-ATLAS-REPOSITORY-501-001 ",
             "Repository {0} is not able to support the regular expression \"{1}\"",
             "This repository has a fixed subset of regular expressions it can support.",
@@ -22,6 +22,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
@@ -30,6 +32,12 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
     public static final String GENERATED_TYPE_PREFIX = "__|";
     public static final String GENERATED_TYPE_POSTFIX = "|__";
 
+    private static final int DEFAULT_CURSOR_PAGE_SIZE = 100;
+
+    private static final double INITIAL_CLASSIFICATION_SELECTIVITY = 0.5;
+    private static final double MINIMUM_CLASSIFICATION_SELECTIVITY = 0.01;
+    private static final int MAXIMUM_CLASSIFICATION_BATCH_SIZE = 1000;
+
     private ApacheAtlasOMRSRepositoryConnector atlasRepositoryConnector;
     private TypeDefStore typeDefStore;
     private AttributeTypeDefStore attributeTypeDefStore;
@@ -993,7 +1001,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             guid = getGuidFromGeneratedId(guid);
         }
 
-        AtlasEntity.AtlasEntityWithExtInfo entity = this.atlasRepositoryConnector.getEntityByGUID(guid, false, true, false);
+        AtlasEntity.AtlasEntityWithExtInfo entity = this.atlasRepositoryConnector.getEntityByGUID(guid, false, true, false, true);
         if (entity == null) {
             OMRSErrorCode errorCode = OMRSErrorCode.ENTITY_NOT_KNOWN;
             String        errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(guid,
@@ -1051,7 +1059,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             guid = getGuidFromGeneratedId(guid);
         }
 
-        AtlasEntity.AtlasEntityWithExtInfo entity = this.atlasRepositoryConnector.getEntityByGUID(guid, false, true, false);
+        AtlasEntity.AtlasEntityWithExtInfo entity = this.atlasRepositoryConnector.getEntityByGUID(guid, false, true, false, true);
         if (entity == null) {
             OMRSErrorCode errorCode = OMRSErrorCode.ENTITY_NOT_KNOWN;
             String        errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(guid,
@@ -1154,8 +1162,9 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                 entityGUID = getGuidFromGeneratedId(entityGUID);
             }
 
-            // 1. retrieve entity from Apache Atlas by GUID (including its relationships)
-            AtlasEntity.AtlasEntityWithExtInfo asset = atlasRepositoryConnector.getEntityByGUID(entityGUID, false, false, false);
+            // 1. retrieve entity from Apache Atlas by GUID (including its relationships, but only minimal details of
+            //    the entities it refers to, as the related entities needed are retrieved separately for just the page)
+            AtlasEntity.AtlasEntityWithExtInfo asset = atlasRepositoryConnector.getEntityByGUID(entityGUID, true, false, false);
 
             // Ensure the entity actually exists (if not, throw error to that effect)
             if (asset == null) {
@@ -1267,7 +1276,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                 pageSize
         );
 
-        List<AtlasEntityHeader> results;
+        List<List<AtlasEntityHeader>> results;
 
         // Immediately throw unimplemented exception if trying to retrieve historical view
         if (asOfTime != null) {
@@ -1318,7 +1327,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
         if (results != null) {
             entityDetails = sortAndLimitFinalResults(
                     results,
-                    fromEntityElement,
+                    getElementsToSkip(results, fromEntityElement),
                     sequencingProperty,
                     sequencingOrder,
                     pageSize,
@@ -1402,7 +1411,8 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                 pageSize
         );
 
-        List<AtlasEntityHeader> results;
+        List<List<AtlasEntityHeader>> results;
+        int elementsToSkip;
 
         // Immediately throw unimplemented exception if trying to retrieve historical view
         if (asOfTime != null) {
@@ -1416,6 +1426,25 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                     errorMessage,
                     errorCode.getSystemAction(),
                     errorCode.getUserAction());
+        } else if (matchClassificationProperties != null) {
+
+            // Classification properties can only (fully) be matched once the results are retrieved, so keep retrieving
+            // results until there are enough matches to fill the requested page (or there are no more results)
+            results = findClassifiedEntitiesAdaptively(
+                    methodName,
+                    entityTypeGUID,
+                    classificationName,
+                    matchClassificationProperties,
+                    matchClassificationCriteria,
+                    fromEntityElement,
+                    limitResultsByStatus,
+                    sequencingProperty,
+                    sequencingOrder,
+                    pageSize
+            );
+            // ... none of which have been skipped by the searches themselves
+            elementsToSkip = fromEntityElement;
+
         } else if (sequencingOrder != null) {
 
             List<String> limitResultsByClassification = new ArrayList<>();
@@ -1424,8 +1453,6 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             // TODO: need a further check whether we are being asked to sequence by property: if so,
             //  it is the _classification_ property not the _entity_ property, so we need a post-search-sorting
 
-            // Run the base search first (and if we need to match on classification properties, increase pageSize
-            // so there is buffer to cull later)
             results = buildAndRunDSLSearch(
                     methodName,
                     entityTypeGUID,
@@ -1436,14 +1463,12 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                     limitResultsByStatus,
                     sequencingProperty,
                     sequencingOrder,
-                    matchClassificationProperties == null ? pageSize : pageSize * 2
+                    pageSize
             );
-            // TODO: still a risk that there are many classified entities and we overflow beyond this increased pageSize
+            elementsToSkip = getElementsToSkip(results, fromEntityElement);
 
         } else {
 
-            // Run the base search first (and if we need to match on classification properties, increase pageSize
-            // so there is buffer to cull later)
             results = buildAndRunBasicSearch(
                     methodName,
                     entityTypeGUID,
@@ -1453,79 +1478,15 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                     null,
                     fromEntityElement,
                     limitResultsByStatus,
-                    matchClassificationProperties == null ? pageSize : pageSize * 2
+                    pageSize
             );
-            // TODO: still a risk that there are many classified entities and we overflow beyond this increased pageSize
-
-        }
-
-        // Then limit any results based on the classification properties (if any were provided)
-        List<AtlasEntityHeader> atlasEntities = new ArrayList<>();
-        if (results != null && matchClassificationProperties != null) {
-
-            Map<String, InstancePropertyValue> propertiesToMatch = matchClassificationProperties.getInstanceProperties();
-
-            if (results != null) {
-                // For each entity we've preliminarily identified...
-                for (AtlasEntityHeader candidateEntity : results) {
-                    List<AtlasClassification> classificationsForEntity = candidateEntity.getClassifications();
-                    // ... iterate through each of its classifications to narrow in on only the one of interest
-                    for (AtlasClassification candidateClassification : classificationsForEntity) {
-                        if (candidateClassification.getTypeName().equals(classificationName)) {
-                            // ... then iterate through the properties of that classification we're trying to match
-                            boolean bMatchesAny = false;
-                            boolean bMatchesAll = true;
-                            for (Map.Entry<String, InstancePropertyValue> propertyToMatch : propertiesToMatch.entrySet()) {
-                                String propertyName = propertyToMatch.getKey();
-                                InstancePropertyValue omrsPropertyValueToMatch = propertyToMatch.getValue();
-                                // Remember that classifications (and their properties) are one-to-one with Egeria (no mapping needed)
-                                Object atlasClassificationValue = candidateClassification.getAttribute(propertyName);
-                                boolean bMatchesThisOne = AttributeMapping.valuesMatch(omrsPropertyValueToMatch, atlasClassificationValue);
-                                bMatchesAll = bMatchesAll && bMatchesThisOne;
-                                bMatchesAny = bMatchesAny || bMatchesThisOne;
-                            }
-                            if (matchClassificationCriteria != null) {
-                                switch (matchClassificationCriteria) {
-                                    case NONE:
-                                        if (!bMatchesAny) {
-                                            atlasEntities.add(candidateEntity);
-                                        }
-                                        break;
-                                    case ALL:
-                                        if (bMatchesAll) {
-                                            atlasEntities.add(candidateEntity);
-                                        }
-                                        break;
-                                    case ANY:
-                                        if (bMatchesAny) {
-                                            atlasEntities.add(candidateEntity);
-                                        }
-                                        break;
-                                }
-                            } else if (bMatchesAll) {
-                                atlasEntities.add(candidateEntity);
-                            } else if (log.isDebugEnabled()) {
-                                log.debug("Unable to match properties '{}' for entity, dropping from results: {}", matchClassificationProperties, candidateEntity);
-                            }
-                        }
-                    }
-                }
-            }
-
-            // ... trim the results list to size, before we retrieve full EntityDetails for each
-            int endOfPageMarker = Math.min(fromEntityElement + pageSize, atlasEntities.size());
-            if (fromEntityElement != 0 || endOfPageMarker < atlasEntities.size()) {
-                atlasEntities = atlasEntities.subList(fromEntityElement, endOfPageMarker);
-            }
+            elementsToSkip = getElementsToSkip(results, fromEntityElement);
 
-        } else if (results != null) {
-            // If no classification properties to limit, just grab the results directly
-            atlasEntities = results;
         }
 
         List<EntityDetail> entityDetails = sortAndLimitFinalResults(
-                atlasEntities,
-                fromEntityElement,
+                results,
+                elementsToSkip,
                 sequencingProperty,
                 sequencingOrder,
                 pageSize,
@@ -1606,7 +1567,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                 pageSize
         );
 
-        List<AtlasEntityHeader> results;
+        List<List<AtlasEntityHeader>> results;
 
         // Immediately throw unimplemented exception if trying to retrieve historical view
         if (asOfTime != null) {
@@ -1751,7 +1712,7 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
         if (results != null) {
             entityDetails = sortAndLimitFinalResults(
                     results,
-                    fromEntityElement,
+                    getElementsToSkip(results, fromEntityElement),
                     sequencingProperty,
                     sequencingOrder,
                     pageSize,
@@ -1762,6 +1723,254 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
 
     }
 
+    /**
+     * Return a cursor through every entity that matches the provided criteria. Rather than building the entire list of
+     * results in memory, the cursor retrieves and maps the entities lazily, a page at a time, prefetching the next page
+     * in the background -- and it moves from page to page by GUID rather than by offset, so that walking through all
+     * of the entities of a type does not get slower the further it goes (see EntityDetailCursor).
+     *
+     * @param userId unique identifier for requesting user.
+     * @param entityTypeGUID unique identifier for the type of entity requested.  Null means any type of entity
+     *                       (but could be slow so not recommended.
+     * @param matchProperties Optional list of entity properties to match (contains wildcards).
+     * @param matchCriteria Enum defining how the match properties should be matched to the entities in the repository.
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param limitResultsByClassification List of classifications that must be present on all returned entities.
+     * @param pageSize the number of entities to retrieve from Apache Atlas at a time.  Zero means use the default.
+     * @param continuationToken the token of a previous cursor (for the same criteria) from which to carry on, or null
+     *                          to start from the first entity.
+     * @return EntityDetailCursor
+     * @throws InvalidParameterException a parameter is invalid or null.
+     * @throws TypeErrorException the type guid passed on the request is not known by the
+     *                              metadata collection.
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                    the metadata collection is stored.
+     * @throws PropertyErrorException the properties specified are not valid for any of the requested types of
+     *                                  entity.
+     * @throws PagingErrorException the paging parameters are set up incorrectly.
+     * @throws FunctionNotSupportedException the repository does not support one of the provided parameters.
+     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
+     */
+    public EntityDetailCursor getEntityDetailCursor(String                    userId,
+                                                    String                    entityTypeGUID,
+                                                    InstanceProperties        matchProperties,
+                                                    MatchCriteria             matchCriteria,
+                                                    List<InstanceStatus>      limitResultsByStatus,
+                                                    List<String>              limitResultsByClassification,
+                                                    int                       pageSize,
+                                                    String                    continuationToken) throws InvalidParameterException,
+            TypeErrorException,
+            RepositoryErrorException,
+            PropertyErrorException,
+            PagingErrorException,
+            FunctionNotSupportedException,
+            UserNotAuthorizedException {
+
+        final String methodName = "getEntityDetailCursor";
+        findEntitiesByPropertyParameterValidation(
+                userId,
+                entityTypeGUID,
+                matchProperties,
+                matchCriteria,
+                0,
+                limitResultsByStatus,
+                limitResultsByClassification,
+                null,
+                null,
+                null,
+                pageSize
+        );
+
+        // As for any DSL query, we MUST have an entity type (for Atlas), so will default to Referenceable
+        String omrsTypeName = "Referenceable";
+        Map<String, String> atlasTypeNamesByPrefix = new HashMap<>();
+        if (entityTypeGUID != null) {
+            TypeDef typeDef = typeDefStore.getTypeDefByGUID(entityTypeGUID);
+            if (typeDef != null) {
+                omrsTypeName = typeDef.getName();
+                atlasTypeNamesByPrefix = typeDefStore.getAllMappedAtlasTypeDefNames(omrsTypeName);
+            } else {
+                if (log.isWarnEnabled()) { log.warn("Unable to search for type, unknown to repository: {}", entityTypeGUID); }
+            }
+        } else {
+            atlasTypeNamesByPrefix.put(null, omrsTypeName);
+        }
+
+        // Build each query once up-front, so that any criteria Apache Atlas cannot support are reported immediately
+        Map<String, String> prefixByAtlasTypeName = new HashMap<>();
+        for (Map.Entry<String, String> entry : atlasTypeNamesByPrefix.entrySet()) {
+            prefixByAtlasTypeName.put(entry.getValue(), entry.getKey());
+            buildDSLQuery(methodName, omrsTypeName, entry.getKey(), entry.getValue(), limitResultsByClassification,
+                    matchProperties, matchCriteria, limitResultsByStatus, null, null, SequencingOrder.GUID, 1, 0);
+        }
+
+        final String cursorTypeName = omrsTypeName;
+        EntityDetailCursor.PageLoader pageLoader = (atlasTypeName, afterGuid, size) -> {
+            List<String> afterCondition = null;
+            if (afterGuid != null) {
+                afterCondition = Collections.singletonList("__guid > \"" + afterGuid + "\"");
+            }
+            String dslQuery = buildDSLQuery(methodName, cursorTypeName, prefixByAtlasTypeName.get(atlasTypeName),
+                    atlasTypeName, limitResultsByClassification, matchProperties, matchCriteria, limitResultsByStatus,
+                    afterCondition, null, SequencingOrder.GUID, size, 0);
+            return loadCursorPage(methodName, dslQuery, Collections.singletonList(prefixByAtlasTypeName.get(atlasTypeName)), userId);
+        };
+
+        return new EntityDetailCursor(
+                methodName,
+                repositoryName,
+                new ArrayList<>(prefixByAtlasTypeName.keySet()),
+                pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE,
+                continuationToken,
+                pageLoader,
+                atlasRepositoryConnector.getSearchExecutor(),
+                atlasRepositoryConnector.getSearchTimeout()
+        );
+
+    }
+
+    /**
+     * Retrieve a cursor over every entity of exactly the provided Apache Atlas type (none of its sub-types), each
+     * mapped to every OMRS entity type (normal and generated) that is mapped from that Apache Atlas type. Each entity
+     * is therefore retrieved from Apache Atlas only once, however many OMRS entities are mapped from it.
+     *
+     * @param userId unique identifier for requesting user.
+     * @param atlasTypeName the name of the Apache Atlas type whose entities to walk
+     * @param pageSize the number of entities to retrieve from Apache Atlas at a time.  Zero means use the default.
+     * @param continuationToken the token of a previous cursor (for the same type) from which to carry on, or null to
+     *                          start from the first entity.
+     * @return EntityDetailCursor
+     * @throws FunctionNotSupportedException the search is not one Apache Atlas can support
+     */
+    public EntityDetailCursor getEntityDetailCursorForAtlasType(String userId,
+                                                               String atlasTypeName,
+                                                               int pageSize,
+                                                               String continuationToken) throws FunctionNotSupportedException {
+
+        final String methodName = "getEntityDetailCursorForAtlasType";
+
+        Map<String, String> omrsTypeNamesByPrefix = typeDefStore.getAllMappedOMRSTypeDefNames(atlasTypeName);
+        List<String> prefixes = omrsTypeNamesByPrefix == null ? Collections.emptyList() : new ArrayList<>(omrsTypeNamesByPrefix.keySet());
+        String omrsTypeName = typeDefStore.getMappedOMRSTypeDefName(atlasTypeName, null);
+        final String queryTypeName = omrsTypeName == null ? atlasTypeName : omrsTypeName;
+        final String exactType = "__typeName = \"" + atlasTypeName + "\"";
+
+        // Build the query once up-front, so that it is reported immediately if Apache Atlas cannot support it
+        buildDSLQuery(methodName, queryTypeName, null, atlasTypeName, null, null, null, null,
+                Collections.singletonList(exactType), null, SequencingOrder.GUID, 1, 0);
+
+        EntityDetailCursor.PageLoader pageLoader = (cursorTypeName, afterGuid, size) -> {
+            List<String> conditions = new ArrayList<>();
+            conditions.add(exactType);
+            if (afterGuid != null) {
+                conditions.add("__guid > \"" + afterGuid + "\"");
+            }
+            String dslQuery = buildDSLQuery(methodName, queryTypeName, null, cursorTypeName, null, null, null, null,
+                    conditions, null, SequencingOrder.GUID, size, 0);
+            return loadCursorPage(methodName, dslQuery, prefixes, userId);
+        };
+
+        return new EntityDetailCursor(
+                methodName,
+                repositoryName,
+                Collections.singletonList(atlasTypeName),
+                pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE,
+                continuationToken,
+                pageLoader,
+                atlasRepositoryConnector.getSearchExecutor(),
+                atlasRepositoryConnector.getSearchTimeout()
+        );
+
+    }
+
+    /**
+     * Retrieve a page of a cursor's entities using the provided DSL query, mapping each entity found to the OMRS
+     * entities of each of the provided prefixes.
+     *
+     * @param methodName the name of the method that opened the cursor
+     * @param dslQuery the DSL query that retrieves the page
+     * @param prefixes the prefixes of the (generated) OMRS entities to map from each, including null for the normal one
+     * @param userId the user through which to do the retrieval
+     * @return {@code LinkedHashMap<String, List<EntityDetail>>} keyed by Apache Atlas GUID, in the order of the page
+     * @throws RepositoryErrorException if the page could not be retrieved
+     */
+    private LinkedHashMap<String, List<EntityDetail>> loadCursorPage(String methodName,
+                                                                    String dslQuery,
+                                                                    List<String> prefixes,
+                                                                    String userId) throws RepositoryErrorException {
+        AtlasSearchResult result = atlasRepositoryConnector.searchWithDSL(dslQuery);
+        if (result == null) {
+            ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.CURSOR_PAGE_FAILURE;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                    repositoryName);
+            throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction());
+        }
+        List<AtlasEntityHeader> headers = result.getEntities() == null ? Collections.emptyList() : result.getEntities();
+        return getMappedEntitiesFromAtlasResults(headers, prefixes, userId);
+    }
+
+    /**
+     * Retrieve a page of the headers of the entities of exactly the provided Apache Atlas type (none of its sub-types)
+     * that were last modified within the provided window of time, whether active or deleted, in order of their GUID. Each page is retrieved by
+     * asking for the entities whose GUID follows the last one already seen (rather than by an offset), so that an
+     * entity modified again while the pages are being retrieved (and so dropping out of the window) cannot shift any
+     * other entity across a page boundary.
+     *
+     * @param atlasTypeName the name of the Apache Atlas type for which to retrieve entities
+     * @param modifiedAfter the time (in milliseconds since the epoch) after which the entities must have been modified
+     * @param modifiedBy the time (in milliseconds since the epoch) by which the entities must have been last modified
+     * @param afterGuid the GUID after which to retrieve entities (or null to start from the first)
+     * @param pageSize the maximum number of entities to retrieve
+     * @return {@code List<AtlasEntityHeader>}
+     * @throws RepositoryErrorException there is a problem communicating with Apache Atlas
+     * @throws FunctionNotSupportedException the search is not one Apache Atlas can support
+     */
+    public List<AtlasEntityHeader> findEntityHeadersModifiedSince(String atlasTypeName,
+                                                                  long modifiedAfter,
+                                                                  long modifiedBy,
+                                                                  String afterGuid,
+                                                                  int pageSize) throws RepositoryErrorException,
+            FunctionNotSupportedException {
+
+        final String methodName = "findEntityHeadersModifiedSince";
+
+        List<String> conditions = new ArrayList<>();
+        conditions.add("__typeName = \"" + atlasTypeName + "\"");
+        conditions.add("__modificationTimestamp > " + modifiedAfter);
+        conditions.add("__modificationTimestamp <= " + modifiedBy);
+        if (afterGuid != null) {
+            conditions.add("__guid > \"" + afterGuid + "\"");
+        }
+        // Deleted entities must be asked for explicitly (Apache Atlas only returns active ones otherwise), so that any
+        // entity deleted while events were not being received is caught up as a delete
+        String omrsTypeName = typeDefStore.getMappedOMRSTypeDefName(atlasTypeName, null);
+        String dslQuery = buildDSLQuery(methodName, omrsTypeName == null ? atlasTypeName : omrsTypeName, null,
+                atlasTypeName, null, null, null, new ArrayList<>(availableStates), conditions, null, SequencingOrder.GUID,
+                pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE, 0);
+        AtlasSearchResult result = atlasRepositoryConnector.searchWithDSL(dslQuery);
+        if (result == null) {
+            ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.MODIFIED_SEARCH_FAILURE;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(atlasTypeName,
+                    String.valueOf(modifiedAfter),
+                    repositoryName);
+            throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction());
+        }
+        return result.getEntities() == null ? Collections.emptyList() : result.getEntities();
+
+    }
+
     /**
      * Returns the Relationship if stored in the metadata collection, otherwise null.
      *
@@ -1996,25 +2205,25 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
      * @param sequencingOrder Enum defining how the results should be ordered.
      * @param pageSize the maximum number of result entities that can be returned on this request.  Zero means
      *                 unrestricted return results size.
-     * @return {@code List<AtlasEntityHeader>}
+     * @return {@code List<List<AtlasEntityHeader>>} with the results of each Apache Atlas type searched (see
+     *         getAtlasOffset and getAtlasLimit for how paging is applied to each)
      * @throws FunctionNotSupportedException when trying to search using a status that is not supported in Atlas
      * @throws RepositoryErrorException when a regular expression is used for the search that is not supported
      */
-    private List<AtlasEntityHeader> buildAndRunDSLSearch(String methodName,
-                                                         String entityTypeGUID,
-                                                         List<String> limitResultsByClassification,
-                                                         InstanceProperties matchProperties,
-                                                         MatchCriteria matchCriteria,
-                                                         int fromEntityElement,
-                                                         List<InstanceStatus> limitResultsByStatus,
-                                                         String sequencingProperty,
-                                                         SequencingOrder sequencingOrder,
-                                                         int pageSize)
+    private List<List<AtlasEntityHeader>> buildAndRunDSLSearch(String methodName,
+                                                               String entityTypeGUID,
+                                                               List<String> limitResultsByClassification,
+                                                               InstanceProperties matchProperties,
+                                                               MatchCriteria matchCriteria,
+                                                               int fromEntityElement,
+                                                               List<InstanceStatus> limitResultsByStatus,
+                                                               String sequencingProperty,
+                                                               SequencingOrder sequencingOrder,
+                                                               int pageSize)
             throws FunctionNotSupportedException, RepositoryErrorException {
 
         // If we need to order the results, it will probably be more efficient to use Atlas's DSL query language
         // to do the search
-        StringBuilder sb = new StringBuilder();
 
         // For this kind of query, we MUST have an entity type (for Atlas),
         // so will default to Referenceable if nothing else was specified
@@ -2032,183 +2241,237 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             atlasTypeNamesByPrefix.put(null, omrsTypeName);
         }
 
+        int atlasOffset = getAtlasOffset(atlasTypeNamesByPrefix.size(), fromEntityElement);
+        int atlasLimit = getAtlasLimit(atlasTypeNamesByPrefix.size(), fromEntityElement, pageSize);
+
         // Run multiple searches, if there are multiple types mapped to the OMRS type...
-        List<AtlasSearchResult> totalResults = new ArrayList<>();
+        List<Supplier<AtlasSearchResult>> searches = new ArrayList<>();
         for (Map.Entry<String, String> entry : atlasTypeNamesByPrefix.entrySet()) {
 
             String prefix = entry.getKey();
             String atlasTypeName = entry.getValue();
-            Map<String, String> omrsPropertyMap = typeDefStore.getPropertyMappingsForOMRSTypeDef(omrsTypeName, prefix);
+            String dslQuery = buildDSLQuery(
+                    methodName,
+                    omrsTypeName,
+                    prefix,
+                    atlasTypeName,
+                    limitResultsByClassification,
+                    matchProperties,
+                    matchCriteria,
+                    limitResultsByStatus,
+                    null,
+                    sequencingProperty,
+                    sequencingOrder,
+                    atlasLimit,
+                    atlasOffset
+            );
+            searches.add(() -> atlasRepositoryConnector.searchWithDSL(dslQuery));
 
-            sb.append("from ");
-            sb.append(atlasTypeName);
-            boolean bWhereClauseAdded = false;
+        }
 
-            // Add the multiple classification criteria, if requested
-            // (recall that OMRS classification name should be identical to Atlas classification name -- no translation needed)
-            if (limitResultsByClassification != null) {
-                List<String> classifications = new ArrayList<>();
-                for (String classificationName : limitResultsByClassification) {
-                    classifications.add(atlasTypeName + " isa " + classificationName);
-                }
-                if (!classifications.isEmpty()) {
-                    sb.append(" where ");
-                    sb.append(String.join(" and ", classifications));
-                    bWhereClauseAdded = true;
-                }
+        return getResultsByType(runSearches(methodName, searches));
+
+    }
+
+    /**
+     * Build an Atlas domain-specific language (DSL) query for a single Apache Atlas type, based on the provided
+     * parameters.
+     *
+     * @param methodName the name of the calling method
+     * @param omrsTypeName the name of the OMRS type being searched
+     * @param prefix the prefix of the (generated) OMRS type mapped to the Apache Atlas type, or null if not generated
+     * @param atlasTypeName the name of the Apache Atlas type to search
+     * @param limitResultsByClassification list of classifications by which to limit the results.
+     * @param matchProperties Optional list of entity properties to match (contains wildcards).
+     * @param matchCriteria Enum defining how the match properties should be matched to the classifications in the repository.
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param additionalConditions any further DSL conditions that must all be met by the results (or null if none)
+     * @param sequencingProperty String name of the entity property that is to be used to sequence the results.
+     *                           Null means do not sequence on a property name (see SequencingOrder).
+     * @param sequencingOrder Enum defining how the results should be ordered.
+     * @param limit the maximum number of results to return (0 for unlimited)
+     * @param offset the number of results to skip
+     * @return String
+     * @throws FunctionNotSupportedException when trying to search using a status that is not supported in Atlas
+     */
+    private String buildDSLQuery(String methodName,
+                                 String omrsTypeName,
+                                 String prefix,
+                                 String atlasTypeName,
+                                 List<String> limitResultsByClassification,
+                                 InstanceProperties matchProperties,
+                                 MatchCriteria matchCriteria,
+                                 List<InstanceStatus> limitResultsByStatus,
+                                 List<String> additionalConditions,
+                                 String sequencingProperty,
+                                 SequencingOrder sequencingOrder,
+                                 int limit,
+                                 int offset) throws FunctionNotSupportedException {
+
+        Map<String, String> omrsPropertyMap = typeDefStore.getPropertyMappingsForOMRSTypeDef(omrsTypeName, prefix);
+
+        List<String> conditions = new ArrayList<>();
+
+        // Add the multiple classification criteria, if requested
+        // (recall that OMRS classification name should be identical to Atlas classification name -- no translation needed)
+        if (limitResultsByClassification != null) {
+            List<String> classifications = new ArrayList<>();
+            for (String classificationName : limitResultsByClassification) {
+                classifications.add(atlasTypeName + " isa " + classificationName);
             }
+            conditions.addAll(classifications);
+        }
 
-            // Add match properties, if requested
-            if (matchProperties != null) {
-                List<String> propertyCriteria = new ArrayList<>();
-                Map<String, InstancePropertyValue> properties = matchProperties.getInstanceProperties();
-                // By default, include only Referenceable's properties (as these will be the only properties that exist
-                // across ALL entity types)
-                Map<String, TypeDefAttribute> omrsAttrTypeDefs = typeDefStore.getAllTypeDefAttributesForName(omrsTypeName);
-                if (properties != null) {
-                    for (Map.Entry<String, InstancePropertyValue> property : properties.entrySet()) {
-                        String omrsPropertyName = property.getKey();
-                        InstancePropertyValue value = property.getValue();
-                        addSearchConditionFromValue(
-                                propertyCriteria,
-                                omrsPropertyName,
-                                value,
-                                omrsPropertyMap,
-                                omrsAttrTypeDefs,
-                                (matchCriteria != null) && matchCriteria.equals(MatchCriteria.NONE),
-                                true
-                        );
-                    }
+        // Add match properties, if requested
+        if (matchProperties != null) {
+            List<String> propertyCriteria = new ArrayList<>();
+            Map<String, InstancePropertyValue> properties = matchProperties.getInstanceProperties();
+            // By default, include only Referenceable's properties (as these will be the only properties that exist
+            // across ALL entity types)
+            Map<String, TypeDefAttribute> omrsAttrTypeDefs = typeDefStore.getAllTypeDefAttributesForName(omrsTypeName);
+            if (properties != null) {
+                for (Map.Entry<String, InstancePropertyValue> property : properties.entrySet()) {
+                    String omrsPropertyName = property.getKey();
+                    InstancePropertyValue value = property.getValue();
+                    addSearchConditionFromValue(
+                            propertyCriteria,
+                            omrsPropertyName,
+                            value,
+                            omrsPropertyMap,
+                            omrsAttrTypeDefs,
+                            (matchCriteria != null) && matchCriteria.equals(MatchCriteria.NONE),
+                            true
+                    );
                 }
-                if (!propertyCriteria.isEmpty()) {
-                    String propertyMatchDelim = " and ";
-                    if (matchCriteria != null && matchCriteria.equals(MatchCriteria.ANY)) {
-                        propertyMatchDelim = " or ";
-                    }
-                    if (!bWhereClauseAdded) {
-                        sb.append(" where");
-                    }
-                    sb.append(" ");
-                    sb.append(String.join(propertyMatchDelim, propertyCriteria));
+            }
+            if (!propertyCriteria.isEmpty()) {
+                String propertyMatchDelim = " and ";
+                if (matchCriteria != null && matchCriteria.equals(MatchCriteria.ANY)) {
+                    propertyMatchDelim = " or ";
                 }
+                conditions.add("(" + String.join(propertyMatchDelim, propertyCriteria) + ")");
             }
+        }
 
-            // Add status limiters, if requested
-            if (limitResultsByStatus != null) {
-                List<String> states = new ArrayList<>();
-                Set<InstanceStatus> limitSet = new HashSet<>(limitResultsByStatus);
-                if (limitSet.equals(availableStates)) {
-                    states.add("__state = 'DELETED'");
-                    states.add("__state = 'ACTIVE'");
-                } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.DELETED)) {
-                    states.add("__state = 'DELETED'");
-                } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.ACTIVE)) {
-                    states.add("__state = 'ACTIVE'");
-                } else {
-                    // Otherwise we must be searching for states that Atlas does not support
-                    OMRSErrorCode errorCode = OMRSErrorCode.METHOD_NOT_IMPLEMENTED;
-                    String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
-                            this.getClass().getName(),
-                            repositoryName);
-                    throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
-                            this.getClass().getName(),
-                            methodName,
-                            errorMessage,
-                            errorCode.getSystemAction(),
-                            errorCode.getUserAction());
-                }
-                if (!states.isEmpty()) {
-                    if (!bWhereClauseAdded) {
-                        sb.append(" where");
-                    }
-                    sb.append(" ");
-                    sb.append(String.join(" or ", states));
-                }
+        // Add status limiters, if requested
+        if (limitResultsByStatus != null) {
+            List<String> states = new ArrayList<>();
+            Set<InstanceStatus> limitSet = new HashSet<>(limitResultsByStatus);
+            if (limitSet.equals(availableStates)) {
+                states.add("__state = 'DELETED'");
+                states.add("__state = 'ACTIVE'");
+            } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.DELETED)) {
+                states.add("__state = 'DELETED'");
+            } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.ACTIVE)) {
+                states.add("__state = 'ACTIVE'");
+            } else {
+                // Otherwise we must be searching for states that Atlas does not support
+                OMRSErrorCode errorCode = OMRSErrorCode.METHOD_NOT_IMPLEMENTED;
+                String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                        this.getClass().getName(),
+                        repositoryName);
+                throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
+                        this.getClass().getName(),
+                        methodName,
+                        errorMessage,
+                        errorCode.getSystemAction(),
+                        errorCode.getUserAction());
+            }
+            if (!states.isEmpty()) {
+                conditions.add("(" + String.join(" or ", states) + ")");
             }
+        }
 
-            // Add sorting criteria, if requested
-            if (sequencingOrder != null) {
-                switch (sequencingOrder) {
-                    case GUID:
-                        sb.append(" orderby __guid asc");
-                        break;
-                    case LAST_UPDATE_OLDEST:
-                        sb.append(" orderby __modificationTimestamp asc");
-                        break;
-                    case LAST_UPDATE_RECENT:
-                        sb.append(" orderby __modificationTimestamp desc");
-                        break;
-                    case CREATION_DATE_OLDEST:
-                        sb.append(" orderby __timestamp asc");
-                        break;
-                    case CREATION_DATE_RECENT:
-                        sb.append(" orderby __timestamp desc");
-                        break;
-                    case PROPERTY_ASCENDING:
-                        if (sequencingProperty != null) {
-                            String atlasPropertyName = omrsPropertyMap.get(sequencingProperty);
-                            if (atlasPropertyName != null) {
-                                sb.append(" orderby ");
-                                sb.append(atlasPropertyName);
-                                sb.append(" asc");
-                            } else {
-                                if (log.isWarnEnabled()) {
-                                    log.warn("Unable to find mapped Atlas property for sorting for: {}", sequencingProperty);
-                                }
-                                sb.append(" orderby __guid asc");
-                            }
+        // Add any other conditions provided by the caller
+        if (additionalConditions != null) {
+            conditions.addAll(additionalConditions);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("from ");
+        sb.append(atlasTypeName);
+        if (!conditions.isEmpty()) {
+            sb.append(" where ");
+            sb.append(String.join(" and ", conditions));
+        }
+
+        // Add sorting criteria, if requested
+        if (sequencingOrder != null) {
+            switch (sequencingOrder) {
+                case GUID:
+                    sb.append(" orderby __guid asc");
+                    break;
+                case LAST_UPDATE_OLDEST:
+                    sb.append(" orderby __modificationTimestamp asc");
+                    break;
+                case LAST_UPDATE_RECENT:
+                    sb.append(" orderby __modificationTimestamp desc");
+                    break;
+                case CREATION_DATE_OLDEST:
+                    sb.append(" orderby __timestamp asc");
+                    break;
+                case CREATION_DATE_RECENT:
+                    sb.append(" orderby __timestamp desc");
+                    break;
+                case PROPERTY_ASCENDING:
+                    if (sequencingProperty != null) {
+                        String atlasPropertyName = omrsPropertyMap.get(sequencingProperty);
+                        if (atlasPropertyName != null) {
+                            sb.append(" orderby ");
+                            sb.append(atlasPropertyName);
+                            sb.append(" asc");
                         } else {
                             if (log.isWarnEnabled()) {
-                                log.warn("No property for sorting provided, defaulting to GUID.");
+                                log.warn("Unable to find mapped Atlas property for sorting for: {}", sequencingProperty);
                             }
                             sb.append(" orderby __guid asc");
                         }
-                        break;
-                    case PROPERTY_DESCENDING:
-                        if (sequencingProperty != null) {
-                            String atlasPropertyName = omrsPropertyMap.get(sequencingProperty);
-                            if (atlasPropertyName != null) {
-                                sb.append(" orderby ");
-                                sb.append(atlasPropertyName);
-                                sb.append(" desc");
-                            } else {
-                                if (log.isWarnEnabled()) {
-                                    log.warn("Unable to find mapped Atlas property for sorting for: {}", sequencingProperty);
-                                }
-                                sb.append(" orderby __guid asc");
-                            }
+                    } else {
+                        if (log.isWarnEnabled()) {
+                            log.warn("No property for sorting provided, defaulting to GUID.");
+                        }
+                        sb.append(" orderby __guid asc");
+                    }
+                    break;
+                case PROPERTY_DESCENDING:
+                    if (sequencingProperty != null) {
+                        String atlasPropertyName = omrsPropertyMap.get(sequencingProperty);
+                        if (atlasPropertyName != null) {
+                            sb.append(" orderby ");
+                            sb.append(atlasPropertyName);
+                            sb.append(" desc");
                         } else {
                             if (log.isWarnEnabled()) {
-                                log.warn("No property for sorting provided, defaulting to GUID.");
+                                log.warn("Unable to find mapped Atlas property for sorting for: {}", sequencingProperty);
                             }
-                            sb.append(" orderby __guid desc");
+                            sb.append(" orderby __guid asc");
                         }
-                        break;
-                    default:
-                        // Do nothing -- no sorting
-                        break;
-                }
-            }
-
-            // Add paging criteria, if requested
-            if (pageSize > 0) {
-                sb.append(" limit ");
-                sb.append(pageSize);
-            }
-            // TODO: can we use fromEntityElement already here if there is a multi-type map?
-            if (fromEntityElement > 0) {
-                sb.append(" offset ");
-                sb.append(fromEntityElement);
-            }
-
-            AtlasSearchResult results = atlasRepositoryConnector.searchWithDSL(sb.toString());
-            if (results != null) {
-                totalResults.add(results);
+                    } else {
+                        if (log.isWarnEnabled()) {
+                            log.warn("No property for sorting provided, defaulting to GUID.");
+                        }
+                        sb.append(" orderby __guid desc");
+                    }
+                    break;
+                default:
+                    // Do nothing -- no sorting
+                    break;
             }
+        }
 
+        // Add paging criteria, if requested
+        if (limit > 0) {
+            sb.append(" limit ");
+            sb.append(limit);
+        }
+        if (offset > 0) {
+            sb.append(" offset ");
+            sb.append(offset);
         }
 
-        return combineMultipleResults(totalResults);
+        return sb.toString();
 
     }
 
@@ -2231,19 +2494,21 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
      *                             status values.
      * @param pageSize the maximum number of result entities that can be returned on this request.  Zero means
      *                 unrestricted return results size.
-     * @return {@code List<EntityDetail>}
+     * @return {@code List<List<AtlasEntityHeader>>} with the results of each Apache Atlas type searched (see
+     *         getAtlasOffset and getAtlasLimit for how paging is applied to each)
      * @throws FunctionNotSupportedException when attempting to search based on a status that is not supported in Atlas
+     * @throws RepositoryErrorException when the searches do not complete in the time allowed
      */
-    private List<AtlasEntityHeader> buildAndRunBasicSearch(String methodName,
-                                                           String entityTypeGUID,
-                                                           String limitResultsByClassification,
-                                                           InstanceProperties matchProperties,
-                                                           MatchCriteria matchCriteria,
-                                                           String fullTextQuery,
-                                                           int fromEntityElement,
-                                                           List<InstanceStatus> limitResultsByStatus,
-                                                           int pageSize)
-            throws FunctionNotSupportedException {
+    private List<List<AtlasEntityHeader>> buildAndRunBasicSearch(String methodName,
+                                                                 String entityTypeGUID,
+                                                                 String limitResultsByClassification,
+                                                                 InstanceProperties matchProperties,
+                                                                 MatchCriteria matchCriteria,
+                                                                 String fullTextQuery,
+                                                                 int fromEntityElement,
+                                                                 List<InstanceStatus> limitResultsByStatus,
+                                                                 int pageSize)
+            throws FunctionNotSupportedException, RepositoryErrorException {
 
         String omrsTypeName = null;
         Map<String, String> atlasTypeNamesByPrefix = new HashMap<>();
@@ -2261,86 +2526,312 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             atlasTypeNamesByPrefix.put(null, null);
         }
 
-        List<AtlasSearchResult> totalResults = new ArrayList<>();
+        int atlasOffset = getAtlasOffset(atlasTypeNamesByPrefix.size(), fromEntityElement);
+        int atlasLimit = getAtlasLimit(atlasTypeNamesByPrefix.size(), fromEntityElement, pageSize);
+
+        List<Supplier<AtlasSearchResult>> searches = new ArrayList<>();
         for (Map.Entry<String, String> entry : atlasTypeNamesByPrefix.entrySet()) {
 
             String prefix = entry.getKey();
             String atlasTypeName = entry.getValue();
 
-            // Otherwise Atlas's "basic" search is likely to be significantly faster
-            SearchParameters searchParameters = new SearchParameters();
-            if (atlasTypeName != null) {
-                searchParameters.setTypeName(atlasTypeName);
-            }
-            searchParameters.setIncludeClassificationAttributes(true);
-            searchParameters.setIncludeSubClassifications(true);
-            searchParameters.setIncludeSubTypes(true);
-            // TODO: can we use fromEntityElement already here if there is a multi-type map?
-            searchParameters.setOffset(fromEntityElement);
-            searchParameters.setLimit(pageSize);
-
-            if (matchProperties != null) {
-                Map<String, InstancePropertyValue> properties = matchProperties.getInstanceProperties();
-                // By default, include only Referenceable's properties (as these will be the only properties that exist
-                // across ALL entity types)
-                Map<String, String> omrsPropertyMap = typeDefStore.getPropertyMappingsForOMRSTypeDef(omrsTypeName, prefix);
-                Map<String, TypeDefAttribute> omrsAttrTypeDefs = typeDefStore.getAllTypeDefAttributesForName(omrsTypeName);
-                if (properties != null) {
-                    List<SearchParameters.FilterCriteria> criteria = new ArrayList<>();
-                    for (Map.Entry<String, InstancePropertyValue> property : properties.entrySet()) {
-                        String omrsPropertyName = property.getKey();
-                        InstancePropertyValue value = property.getValue();
-                        addSearchConditionFromValue(
-                                criteria,
-                                omrsPropertyName,
-                                value,
-                                omrsPropertyMap,
-                                omrsAttrTypeDefs,
-                                (matchCriteria != null) && matchCriteria.equals(MatchCriteria.NONE),
-                                false
-                        );
-                    }
-                    SearchParameters.FilterCriteria entityFilters = new SearchParameters.FilterCriteria();
-                    if (criteria.size() > 1) {
-                        entityFilters.setCriterion(criteria);
-                        if (matchCriteria != null) {
-                            switch (matchCriteria) {
-                                case ALL:
-                                case NONE:
-                                    entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.AND);
-                                    break;
-                                case ANY:
-                                    entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.OR);
-                                    break;
-                            }
-                        } else {
-                            entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.AND);
+            SearchParameters searchParameters = buildSearchParameters(
+                    methodName,
+                    omrsTypeName,
+                    prefix,
+                    atlasTypeName,
+                    limitResultsByClassification,
+                    matchProperties,
+                    matchCriteria,
+                    fullTextQuery,
+                    limitResultsByStatus,
+                    atlasLimit,
+                    atlasOffset
+            );
+
+            searches.add(() -> atlasRepositoryConnector.searchForEntities(searchParameters));
+
+        }
+
+        return getResultsByType(runSearches(methodName, searches));
+
+    }
+
+    /**
+     * Build the parameters for an Atlas basic search of a single Apache Atlas type, based on the provided parameters.
+     *
+     * @param methodName the name of the calling method
+     * @param omrsTypeName the name of the OMRS type being searched (or null if searching all types)
+     * @param prefix the prefix of the (generated) OMRS type mapped to the Apache Atlas type, or null if not generated
+     * @param atlasTypeName the name of the Apache Atlas type to search (or null if searching all types)
+     * @param limitResultsByClassification name of a single classification by which to limit the results.
+     * @param matchProperties Optional list of entity properties to match (contains wildcards), mutually-exclusive with
+     *                        fullTextQuery.
+     * @param matchCriteria Enum defining how the match properties should be matched to the classifications in the repository.
+     * @param fullTextQuery Optional text that should be searched for in all text fields of the entities (mutually-exclusive
+     *                      with matchProperties)
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param limit the maximum number of results to return
+     * @param offset the number of results to skip
+     * @return SearchParameters
+     * @throws FunctionNotSupportedException when attempting to search based on a status that is not supported in Atlas
+     */
+    private SearchParameters buildSearchParameters(String methodName,
+                                                   String omrsTypeName,
+                                                   String prefix,
+                                                   String atlasTypeName,
+                                                   String limitResultsByClassification,
+                                                   InstanceProperties matchProperties,
+                                                   MatchCriteria matchCriteria,
+                                                   String fullTextQuery,
+                                                   List<InstanceStatus> limitResultsByStatus,
+                                                   int limit,
+                                                   int offset) throws FunctionNotSupportedException {
+
+        // Otherwise Atlas's "basic" search is likely to be significantly faster
+        SearchParameters searchParameters = new SearchParameters();
+        if (atlasTypeName != null) {
+            searchParameters.setTypeName(atlasTypeName);
+        }
+        searchParameters.setIncludeClassificationAttributes(true);
+        searchParameters.setIncludeSubClassifications(true);
+        searchParameters.setIncludeSubTypes(true);
+        searchParameters.setOffset(offset);
+        searchParameters.setLimit(limit);
+
+        if (matchProperties != null) {
+            Map<String, InstancePropertyValue> properties = matchProperties.getInstanceProperties();
+            // By default, include only Referenceable's properties (as these will be the only properties that exist
+            // across ALL entity types)
+            Map<String, String> omrsPropertyMap = typeDefStore.getPropertyMappingsForOMRSTypeDef(omrsTypeName, prefix);
+            Map<String, TypeDefAttribute> omrsAttrTypeDefs = typeDefStore.getAllTypeDefAttributesForName(omrsTypeName);
+            if (properties != null) {
+                List<SearchParameters.FilterCriteria> criteria = new ArrayList<>();
+                for (Map.Entry<String, InstancePropertyValue> property : properties.entrySet()) {
+                    String omrsPropertyName = property.getKey();
+                    InstancePropertyValue value = property.getValue();
+                    addSearchConditionFromValue(
+                            criteria,
+                            omrsPropertyName,
+                            value,
+                            omrsPropertyMap,
+                            omrsAttrTypeDefs,
+                            (matchCriteria != null) && matchCriteria.equals(MatchCriteria.NONE),
+                            false
+                    );
+                }
+                SearchParameters.FilterCriteria entityFilters = new SearchParameters.FilterCriteria();
+                if (criteria.isEmpty()) {
+                    entityFilters = null;
+                } else if (criteria.size() > 1) {
+                    entityFilters.setCriterion(criteria);
+                    if (matchCriteria != null) {
+                        switch (matchCriteria) {
+                            case ALL:
+                            case NONE:
+                                entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.AND);
+                                break;
+                            case ANY:
+                                entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.OR);
+                                break;
                         }
                     } else {
-                        entityFilters = criteria.get(0);
+                        entityFilters.setCondition(SearchParameters.FilterCriteria.Condition.AND);
                     }
-                    searchParameters.setEntityFilters(entityFilters);
+                } else {
+                    entityFilters = criteria.get(0);
                 }
-            } else if (fullTextQuery != null) {
-                // TODO: escape regex here?
-                searchParameters.setQuery(fullTextQuery);
+                searchParameters.setEntityFilters(entityFilters);
             }
+        } else if (fullTextQuery != null) {
+            // TODO: escape regex here?
+            searchParameters.setQuery(fullTextQuery);
+        }
+
+        if (limitResultsByStatus != null) {
+            Set<InstanceStatus> limitSet = new HashSet<>(limitResultsByStatus);
+            if (limitSet.equals(availableStates) || (limitSet.size() == 1 && limitSet.contains(InstanceStatus.DELETED))) {
+                // If we're to search for deleted, do not exclude deleted
+                searchParameters.setExcludeDeletedEntities(false);
+            } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.ACTIVE)) {
+                // Otherwise if we are only after active, do exclude deleted
+                searchParameters.setExcludeDeletedEntities(true);
+            } else {
+                // Otherwise we must be searching for states that Atlas does not support
+                OMRSErrorCode errorCode = OMRSErrorCode.METHOD_NOT_IMPLEMENTED;
+                String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                        this.getClass().getName(),
+                        repositoryName);
+                throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
+                        this.getClass().getName(),
+                        methodName,
+                        errorMessage,
+                        errorCode.getSystemAction(),
+                        errorCode.getUserAction());
+            }
+        }
+
+        if (limitResultsByClassification != null) {
+            searchParameters.setClassification(limitResultsByClassification);
+        }
+
+        return searchParameters;
+
+    }
 
-            if (limitResultsByStatus != null) {
-                Set<InstanceStatus> limitSet = new HashSet<>(limitResultsByStatus);
-                if (limitSet.equals(availableStates) || (limitSet.size() == 1 && limitSet.contains(InstanceStatus.DELETED))) {
-                    // If we're to search for deleted, do not exclude deleted
-                    searchParameters.setExcludeDeletedEntities(false);
-                } else if (limitSet.size() == 1 && limitSet.contains(InstanceStatus.ACTIVE)) {
-                    // Otherwise if we are only after active, do exclude deleted
-                    searchParameters.setExcludeDeletedEntities(true);
+    /**
+     * Search for the entities with the provided classification whose classification properties match those provided.
+     * Each Apache Atlas type is searched in batches until it has provided enough matches to fill the requested page (or
+     * has no more results), with the size of each batch based on the proportion of the results retrieved so far (by
+     * any type) that have matched. When the results need not be ordered, any properties that Apache Atlas can match
+     * itself are pushed down to it as filters on the classification, and only the rest are matched once retrieved.
+     *
+     * @param methodName the name of the calling method
+     * @param entityTypeGUID unique identifier for the type of entity requested.  Null means any type of entity
+     *                       (but could be slow so not recommended.
+     * @param classificationName name of the classification, note a null is not valid.
+     * @param matchClassificationProperties list of classification properties used to narrow the search
+     * @param matchClassificationCriteria Enum defining how the match properties should be matched to the classifications in the repository.
+     * @param fromEntityElement the starting element number of the entities to return.
+     * @param limitResultsByStatus By default, entities in all statuses are returned.  However, it is possible
+     *                             to specify a list of statuses (eg ACTIVE) to restrict the results to.  Null means all
+     *                             status values.
+     * @param sequencingProperty String name of the entity property that is to be used to sequence the results.
+     *                           Null means do not sequence on a property name (see SequencingOrder).
+     * @param sequencingOrder Enum defining how the results should be ordered.
+     * @param pageSize the maximum number of result entities that can be returned on this request.  Zero means
+     *                 unrestricted return results size.
+     * @return {@code List<List<AtlasEntityHeader>>} with the matching results of each Apache Atlas type searched, none
+     *         of which have been skipped
+     * @throws FunctionNotSupportedException when attempting to search based on a status that is not supported in Atlas
+     * @throws RepositoryErrorException when any of the searches fails, or they do not complete in the time allowed
+     */
+    private List<List<AtlasEntityHeader>> findClassifiedEntitiesAdaptively(String methodName,
+                                                                           String entityTypeGUID,
+                                                                           String classificationName,
+                                                                           InstanceProperties matchClassificationProperties,
+                                                                           MatchCriteria matchClassificationCriteria,
+                                                                           int fromEntityElement,
+                                                                           List<InstanceStatus> limitResultsByStatus,
+                                                                           String sequencingProperty,
+                                                                           SequencingOrder sequencingOrder,
+                                                                           int pageSize)
+            throws FunctionNotSupportedException, RepositoryErrorException {
+
+        // Ordered results need Atlas's DSL query language, which MUST have an entity type (so will default to
+        // Referenceable if nothing else was specified)
+        boolean useDSL = (sequencingOrder != null);
+        String omrsTypeName = useDSL ? "Referenceable" : null;
+        Map<String, String> atlasTypeNamesByPrefix = new HashMap<>();
+        if (entityTypeGUID != null) {
+            TypeDef typeDef = typeDefStore.getTypeDefByGUID(entityTypeGUID);
+            if (typeDef != null) {
+                omrsTypeName = typeDef.getName();
+                atlasTypeNamesByPrefix = typeDefStore.getAllMappedAtlasTypeDefNames(omrsTypeName);
+            } else {
+                if (log.isWarnEnabled()) { log.warn("Unable to search for type, unknown to repository: {}", entityTypeGUID); }
+            }
+        } else {
+            atlasTypeNamesByPrefix.put(null, omrsTypeName);
+        }
+
+        List<String> limitResultsByClassification = new ArrayList<>();
+        limitResultsByClassification.add(classificationName);
+        Map<String, InstancePropertyValue> propertiesToMatch = matchClassificationProperties.getInstanceProperties();
+        SearchParameters.FilterCriteria tagFilters = null;
+        Set<String> propertiesFiltered = new HashSet<>();
+        if (!useDSL) {
+            tagFilters = getClassificationTagFilters(classificationName, propertiesToMatch, matchClassificationCriteria, propertiesFiltered);
+        }
+
+        // Only those properties that Apache Atlas has not already filtered need to be matched once retrieved
+        Map<String, InstancePropertyValue> propertiesToCheck = new HashMap<>();
+        if (propertiesToMatch != null) {
+            propertiesToCheck.putAll(propertiesToMatch);
+            propertiesToCheck.keySet().removeAll(propertiesFiltered);
+        }
+        boolean checkProperties = !propertiesToCheck.isEmpty() || propertiesFiltered.isEmpty();
+
+        // Every type could provide every match up to the end of the requested page, so each must find that many
+        int matchesNeeded = pageSize > 0 ? fromEntityElement + pageSize : 0;
+        List<Map.Entry<String, String>> typesToSearch = new ArrayList<>(atlasTypeNamesByPrefix.entrySet());
+        List<List<AtlasEntityHeader>> matchesByType = new ArrayList<>();
+        int[] offsets = new int[typesToSearch.size()];
+        boolean[] exhausted = new boolean[typesToSearch.size()];
+        for (int i = 0; i < typesToSearch.size(); i++) {
+            matchesByType.add(new ArrayList<>());
+        }
+        long totalRetrieved = 0;
+        long totalMatched = 0;
+
+        while (true) {
+
+            // Search (another batch of) each type that still needs more matches and has more results to give...
+            List<Integer> typesSearched = new ArrayList<>();
+            List<Integer> batchSizes = new ArrayList<>();
+            List<Supplier<AtlasSearchResult>> searches = new ArrayList<>();
+            for (int i = 0; i < typesToSearch.size(); i++) {
+                int matchesSoFar = matchesByType.get(i).size();
+                if (exhausted[i] || (matchesNeeded > 0 && matchesSoFar >= matchesNeeded)) {
+                    continue;
+                }
+                String prefix = typesToSearch.get(i).getKey();
+                String atlasTypeName = typesToSearch.get(i).getValue();
+                int batchSize = getClassificationBatchSize(matchesNeeded - matchesSoFar, totalRetrieved, totalMatched);
+                if (useDSL) {
+                    String dslQuery = buildDSLQuery(
+                            methodName,
+                            omrsTypeName,
+                            prefix,
+                            atlasTypeName,
+                            limitResultsByClassification,
+                            null,
+                            matchClassificationCriteria,
+                            limitResultsByStatus,
+                            null,
+                            sequencingProperty,
+                            sequencingOrder,
+                            batchSize,
+                            offsets[i]
+                    );
+                    searches.add(() -> atlasRepositoryConnector.searchWithDSL(dslQuery));
                 } else {
-                    // Otherwise we must be searching for states that Atlas does not support
-                    OMRSErrorCode errorCode = OMRSErrorCode.METHOD_NOT_IMPLEMENTED;
-                    String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
-                            this.getClass().getName(),
+                    SearchParameters searchParameters = buildSearchParameters(
+                            methodName,
+                            omrsTypeName,
+                            prefix,
+                            atlasTypeName,
+                            classificationName,
+                            null,
+                            matchClassificationCriteria,
+                            null,
+                            limitResultsByStatus,
+                            batchSize,
+                            offsets[i]
+                    );
+                    searchParameters.setTagFilters(tagFilters);
+                    searches.add(() -> atlasRepositoryConnector.searchForEntities(searchParameters));
+                }
+                typesSearched.add(i);
+                batchSizes.add(batchSize);
+            }
+            if (searches.isEmpty()) {
+                break;
+            }
+
+            // ... and keep only those results whose classification properties match (a failed search must not be
+            // taken for a type that has run out of results, as that would silently drop its remaining matches)
+            List<AtlasSearchResult> results = runSearches(methodName, searches);
+            for (int j = 0; j < typesSearched.size(); j++) {
+                if (results.get(j) == null) {
+                    ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.CLASSIFIED_SEARCH_FAILURE;
+                    String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(typesToSearch.get(typesSearched.get(j)).getValue(),
+                            classificationName,
+                            methodName,
                             repositoryName);
-                    throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
+                    throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
                             this.getClass().getName(),
                             methodName,
                             errorMessage,
@@ -2348,57 +2839,341 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
                             errorCode.getUserAction());
                 }
             }
+            List<List<AtlasEntityHeader>> resultsByType = getResultsByType(results);
+            for (int j = 0; j < typesSearched.size(); j++) {
+                int i = typesSearched.get(j);
+                List<AtlasEntityHeader> batch = resultsByType.get(j);
+                offsets[i] += batch.size();
+                exhausted[i] = batch.size() < batchSizes.get(j);
+                totalRetrieved += batch.size();
+                for (AtlasEntityHeader candidateEntity : batch) {
+                    if (!checkProperties
+                            || matchesClassificationProperties(candidateEntity, classificationName, propertiesToCheck, matchClassificationCriteria)) {
+                        matchesByType.get(i).add(candidateEntity);
+                        totalMatched++;
+                    } else if (log.isDebugEnabled()) {
+                        log.debug("Unable to match properties '{}' for entity, dropping from results: {}", matchClassificationProperties, candidateEntity);
+                    }
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Classification '{}' matched {} of {} results retrieved so far.", classificationName, totalMatched, totalRetrieved);
+            }
+
+        }
+
+        return matchesByType;
+
+    }
+
+    /**
+     * Retrieve the number of results to request from Apache Atlas in the next batch, so that (based on the proportion
+     * of results that have matched so far) it is likely to provide the remaining matches needed without retrieving
+     * many more results than that.
+     *
+     * @param matchesRemaining the number of matches still needed (0 or less if all matches are needed)
+     * @param totalRetrieved the number of results retrieved so far
+     * @param totalMatched the number of those results that matched
+     * @return int
+     */
+    private static int getClassificationBatchSize(int matchesRemaining, long totalRetrieved, long totalMatched) {
+        if (matchesRemaining <= 0) {
+            return MAXIMUM_CLASSIFICATION_BATCH_SIZE;
+        }
+        double selectivity = totalRetrieved == 0 ? INITIAL_CLASSIFICATION_SELECTIVITY : (double) totalMatched / totalRetrieved;
+        selectivity = Math.max(selectivity, MINIMUM_CLASSIFICATION_SELECTIVITY);
+        long batchSize = (long) Math.ceil(matchesRemaining / selectivity);
+        return (int) Math.min(batchSize, MAXIMUM_CLASSIFICATION_BATCH_SIZE);
+    }
+
+    /**
+     * Build Apache Atlas filters on a classification from those of the provided classification properties that Apache
+     * Atlas is able to match itself, adding the name of each property that is filtered to the provided set so that it
+     * need not also be matched once the results are retrieved. (Classifications, and their properties, are one-to-one
+     * with Egeria so no mapping of property names is needed.)
+     *
+     * Primitive (other than date) and enum values are filtered, through the same operators as the entity properties in
+     * any search. When matching ANY of the properties, they are filtered only if every one of them can be; when
+     * matching NONE of them, nothing is filtered as Apache Atlas would also drop any classification that has no value
+     * for a property.
+     *
+     * @param classificationName name of the classification whose properties are to be matched
+     * @param propertiesToMatch the classification properties to match
+     * @param matchCriteria Enum defining how the properties should be matched
+     * @param propertiesFiltered the set to which to add the name of each property that is filtered
+     * @return SearchParameters.FilterCriteria, or null if there are no properties that can be filtered by Apache Atlas
+     */
+    private SearchParameters.FilterCriteria getClassificationTagFilters(String classificationName,
+                                                                        Map<String, InstancePropertyValue> propertiesToMatch,
+                                                                        MatchCriteria matchCriteria,
+                                                                        Set<String> propertiesFiltered) {
+
+        if (propertiesToMatch == null || propertiesToMatch.isEmpty()
+                || (matchCriteria != null && matchCriteria.equals(MatchCriteria.NONE))) {
+            return null;
+        }
+
+        Map<String, String> propertyNameMap = new HashMap<>();
+        for (String propertyName : propertiesToMatch.keySet()) {
+            propertyNameMap.put(propertyName, propertyName);
+        }
+        Map<String, TypeDefAttribute> omrsAttrTypeDefs = typeDefStore.getAllTypeDefAttributesForName(classificationName);
+        if (omrsAttrTypeDefs == null) {
+            omrsAttrTypeDefs = Collections.emptyMap();
+        }
+
+        List<SearchParameters.FilterCriteria> criteria = new ArrayList<>();
+        Set<String> filtered = new HashSet<>();
+        for (Map.Entry<String, InstancePropertyValue> propertyToMatch : propertiesToMatch.entrySet()) {
+            String propertyName = propertyToMatch.getKey();
+            InstancePropertyValue value = propertyToMatch.getValue();
+            boolean canFilter = false;
+            if (value != null) {
+                InstancePropertyCategory category = value.getInstancePropertyCategory();
+                if (category == InstancePropertyCategory.ENUM) {
+                    canFilter = true;
+                } else if (category == InstancePropertyCategory.PRIMITIVE) {
+                    PrimitivePropertyValue primitive = (PrimitivePropertyValue) value;
+                    canFilter = primitive.getPrimitiveValue() != null
+                            && primitive.getPrimitiveDefCategory() != PrimitiveDefCategory.OM_PRIMITIVE_TYPE_DATE;
+                }
+            }
+            if (canFilter) {
+                List<SearchParameters.FilterCriteria> criterion = new ArrayList<>();
+                try {
+                    addSearchConditionFromValue(
+                            criterion,
+                            propertyName,
+                            value,
+                            propertyNameMap,
+                            omrsAttrTypeDefs,
+                            false,
+                            false
+                    );
+                } catch (FunctionNotSupportedException e) {
+                    // A regular expression Apache Atlas cannot match, so leave it to be matched once retrieved
+                    if (log.isDebugEnabled()) { log.debug("Unable to filter classification property '{}' in Apache Atlas: {}", propertyName, value); }
+                }
+                canFilter = (criterion.size() == 1);
+                if (canFilter) {
+                    criteria.add(criterion.get(0));
+                    filtered.add(propertyName);
+                }
+            }
+            if (!canFilter && matchCriteria != null && matchCriteria.equals(MatchCriteria.ANY)) {
+                // A result could match on this property alone, so none of the others can be used to narrow the results
+                return null;
+            }
+        }
 
-            if (limitResultsByClassification != null) {
-                searchParameters.setClassification(limitResultsByClassification);
+        propertiesFiltered.addAll(filtered);
+        if (criteria.isEmpty()) {
+            return null;
+        } else if (criteria.size() == 1) {
+            return criteria.get(0);
+        } else {
+            SearchParameters.FilterCriteria tagFilters = new SearchParameters.FilterCriteria();
+            tagFilters.setCriterion(criteria);
+            if (matchCriteria != null && matchCriteria.equals(MatchCriteria.ANY)) {
+                tagFilters.setCondition(SearchParameters.FilterCriteria.Condition.OR);
+            } else {
+                tagFilters.setCondition(SearchParameters.FilterCriteria.Condition.AND);
             }
+            return tagFilters;
+        }
 
-            AtlasSearchResult results = atlasRepositoryConnector.searchForEntities(searchParameters);
-            totalResults.add(results);
+    }
 
+    /**
+     * Indicates whether the provided Apache Atlas entity has the provided classification with properties that match
+     * those provided (true) or not (false).
+     *
+     * @param candidateEntity the Apache Atlas entity to check
+     * @param classificationName the name of the classification whose properties should be checked
+     * @param propertiesToMatch the classification properties to match
+     * @param matchCriteria Enum defining how the properties should be matched
+     * @return boolean
+     */
+    private boolean matchesClassificationProperties(AtlasEntityHeader candidateEntity,
+                                                    String classificationName,
+                                                    Map<String, InstancePropertyValue> propertiesToMatch,
+                                                    MatchCriteria matchCriteria) {
+
+        List<AtlasClassification> classificationsForEntity = candidateEntity.getClassifications();
+        if (classificationsForEntity != null) {
+            // Iterate through each of its classifications to narrow in on only the one of interest
+            for (AtlasClassification candidateClassification : classificationsForEntity) {
+                if (candidateClassification.getTypeName().equals(classificationName)) {
+                    // ... then iterate through the properties of that classification we're trying to match
+                    boolean bMatchesAny = false;
+                    boolean bMatchesAll = true;
+                    if (propertiesToMatch != null) {
+                        for (Map.Entry<String, InstancePropertyValue> propertyToMatch : propertiesToMatch.entrySet()) {
+                            String propertyName = propertyToMatch.getKey();
+                            InstancePropertyValue omrsPropertyValueToMatch = propertyToMatch.getValue();
+                            // Remember that classifications (and their properties) are one-to-one with Egeria (no mapping needed)
+                            Object atlasClassificationValue = candidateClassification.getAttribute(propertyName);
+                            boolean bMatchesThisOne = AttributeMapping.valuesMatch(omrsPropertyValueToMatch, atlasClassificationValue);
+                            bMatchesAll = bMatchesAll && bMatchesThisOne;
+                            bMatchesAny = bMatchesAny || bMatchesThisOne;
+                        }
+                    }
+                    if (matchCriteria != null) {
+                        switch (matchCriteria) {
+                            case NONE:
+                                return !bMatchesAny;
+                            case ANY:
+                                return bMatchesAny;
+                            case ALL:
+                            default:
+                                return bMatchesAll;
+                        }
+                    } else {
+                        return bMatchesAll;
+                    }
+                }
+            }
         }
+        return false;
 
-        return combineMultipleResults(totalResults);
+    }
+
+    /**
+     * Run the provided searches against Apache Atlas, concurrently if there is more than one, and return all of their
+     * results in the same order as the searches were provided (with null for any search that failed). All of the
+     * searches must complete within the search timeout configured for the connector.
+     *
+     * @param methodName the name of the calling method
+     * @param searches the searches to run
+     * @return {@code List<AtlasSearchResult>}
+     * @throws RepositoryErrorException when the searches do not complete in the time allowed
+     */
+    private List<AtlasSearchResult> runSearches(String methodName,
+                                                List<Supplier<AtlasSearchResult>> searches) throws RepositoryErrorException {
+
+        List<AtlasSearchResult> results = new ArrayList<>();
+        if (searches.size() == 1) {
+            // No need to hand off to another thread for only a single search
+            results.add(searches.get(0).get());
+        } else if (!searches.isEmpty()) {
+            List<Callable<AtlasSearchResult>> tasks = new ArrayList<>();
+            for (Supplier<AtlasSearchResult> search : searches) {
+                tasks.add(search::get);
+            }
+            ExecutorService executor = atlasRepositoryConnector.getSearchExecutor();
+            int timeout = atlasRepositoryConnector.getSearchTimeout();
+            try {
+                List<Future<AtlasSearchResult>> futures;
+                if (timeout > 0) {
+                    futures = executor.invokeAll(tasks, timeout, TimeUnit.SECONDS);
+                } else {
+                    futures = executor.invokeAll(tasks);
+                }
+                for (Future<AtlasSearchResult> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (CancellationException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.SEARCH_TIMEOUT;
+                String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                        repositoryName,
+                        String.valueOf(timeout));
+                throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
+                        this.getClass().getName(),
+                        methodName,
+                        errorMessage,
+                        errorCode.getSystemAction(),
+                        errorCode.getUserAction());
+            } catch (ExecutionException e) {
+                // The searches themselves do not throw checked exceptions, so anything here is a runtime problem
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
 
     }
 
     /**
-     * Combine a list of Apache Atlas results into a single list of atlas entities.
+     * Retrieve the offset to request from each Apache Atlas search. When only a single Apache Atlas type is searched,
+     * Apache Atlas itself can skip to the requested starting element; but when multiple types are searched, each
+     * search must start from its first result so that the results can be correctly merged into a single page.
+     *
+     * @param numberOfSearches the number of Apache Atlas searches that will be run
+     * @param fromElement the starting element of the page of results requested
+     * @return int
+     */
+    private static int getAtlasOffset(int numberOfSearches, int fromElement) {
+        return numberOfSearches > 1 ? 0 : fromElement;
+    }
+
+    /**
+     * Retrieve the limit to request from each Apache Atlas search. When multiple Apache Atlas types are searched,
+     * any one of them could provide every result up to the end of the requested page, so each must return that many.
+     *
+     * @param numberOfSearches the number of Apache Atlas searches that will be run
+     * @param fromElement the starting element of the page of results requested
+     * @param pageSize the number of results requested (0 for unlimited)
+     * @return int
+     */
+    private static int getAtlasLimit(int numberOfSearches, int fromElement, int pageSize) {
+        return (numberOfSearches > 1 && pageSize > 0) ? fromElement + pageSize : pageSize;
+    }
+
+    /**
+     * Retrieve the number of results still to be skipped to reach the start of the requested page, given the results
+     * of running the searches built by buildAndRunDSLSearch or buildAndRunBasicSearch.
+     *
+     * @param resultsByType the results of each Apache Atlas type searched
+     * @param fromElement the starting element of the page of results requested
+     * @return int
+     */
+    private static int getElementsToSkip(List<List<AtlasEntityHeader>> resultsByType, int fromElement) {
+        return fromElement - getAtlasOffset(resultsByType.size(), fromElement);
+    }
+
+    /**
+     * Convert a list of Apache Atlas results into a list of the atlas entities from each (in the same order), with an
+     * empty list for any search that did not return any results.
      *
      * @param resultsList the list of multiple Apache Atlas search results
-     * @return {@code List<AtlasEntityHeader>}
+     * @return {@code List<List<AtlasEntityHeader>>}
      */
-    private List<AtlasEntityHeader> combineMultipleResults(List<AtlasSearchResult> resultsList) {
-        if (resultsList == null || resultsList.isEmpty()) {
-            return null;
-        } else if (resultsList.size() == 1) {
-            return resultsList.get(0).getEntities();
-        } else {
-            List<AtlasEntityHeader> totalResults = new ArrayList<>();
-            for (AtlasSearchResult result : resultsList) {
-                totalResults.addAll(result.getEntities());
+    private List<List<AtlasEntityHeader>> getResultsByType(List<AtlasSearchResult> resultsList) {
+        List<List<AtlasEntityHeader>> resultsByType = new ArrayList<>();
+        for (AtlasSearchResult result : resultsList) {
+            if (result == null || result.getEntities() == null) {
+                resultsByType.add(Collections.emptyList());
+            } else {
+                resultsByType.add(result.getEntities());
             }
-            return totalResults;
         }
+        return resultsByType;
     }
 
     /**
-     * Sort the list of results and limit based on the provided parameters.
+     * Sort the results of each Apache Atlas type searched and merge them into the single page of results requested.
+     * When there is no ordering, only the page of results is translated into EntityDetails; otherwise the results of
+     * each type are translated and ordered, and then merged only as far as the end of the page.
      *
-     * @param results the Apache Atlas results to sort and limit
-     * @param fromElement the starting element to include in the limited results
+     * @param resultsByType the Apache Atlas results of each type searched, to sort and limit
+     * @param elementsToSkip the number of (merged) results to skip before the start of the page
      * @param sequencingProperty the property by which to sort the results (or null, if not sorting by property)
      * @param sequencingOrder the order by which to sort the results
      * @param pageSize the number of results to include in this page
      * @param userId the user through which to translate the results
-     * @return
+     * @return {@code List<EntityDetail>}
      * @throws InvalidParameterException the guid is null.
      * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
      *                                  the metadata collection is stored.
      * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
      */
-    private List<EntityDetail> sortAndLimitFinalResults(List<AtlasEntityHeader> results,
-                                                        int fromElement,
+    private List<EntityDetail> sortAndLimitFinalResults(List<List<AtlasEntityHeader>> resultsByType,
+                                                        int elementsToSkip,
                                                         String sequencingProperty,
                                                         SequencingOrder sequencingOrder,
                                                         int pageSize,
@@ -2407,57 +3182,107 @@ public class ApacheAtlasOMRSMetadataCollection extends OMRSMetadataCollectionBas
             RepositoryErrorException,
             UserNotAuthorizedException {
 
-        List<EntityDetail> totalResults = new ArrayList<>();
-        totalResults.addAll(getEntityDetailsFromAtlasResults(results, userId));
-
-        // TODO: send something in that determines whether re-sorting the results is actually necessary?
-        // Need to potentially re-sort and re-limit the results, if we ran the search against more than one type
         Comparator<EntityDetail> comparator = SequencingUtils.getEntityDetailComparator(sequencingOrder, sequencingProperty);
-        if (comparator != null) {
-            totalResults.sort(comparator);
-        }
-        int endOfPageMarker = Math.min(fromElement + pageSize, totalResults.size());
-        if (fromElement != 0 || endOfPageMarker < totalResults.size()) {
-            totalResults = totalResults.subList(fromElement, endOfPageMarker);
+        if (comparator == null) {
+            // Without any ordering, we can limit to the page before retrieving the details of any of the results
+            List<AtlasEntityHeader> page = SequencingUtils.mergeSorted(resultsByType, null, elementsToSkip, pageSize);
+            return getEntityDetailsFromAtlasResults(page, userId);
         }
 
-        return totalResults;
+        // Otherwise retrieve the details of every result (in a single bulk retrieval), and re-sort each type's results
+        // by the details -- each search will already have been limited to at most the end of the page
+        List<AtlasEntityHeader> allResults = new ArrayList<>();
+        for (List<AtlasEntityHeader> results : resultsByType) {
+            allResults.addAll(results);
+        }
+        List<EntityDetail> allDetails = getEntityDetailsFromAtlasResults(allResults, userId);
+        Map<String, EntityDetail> detailsByGuid = new HashMap<>();
+        for (EntityDetail detail : allDetails) {
+            detailsByGuid.put(detail.getGUID(), detail);
+        }
+        List<List<EntityDetail>> detailsByType = new ArrayList<>();
+        for (List<AtlasEntityHeader> results : resultsByType) {
+            List<EntityDetail> details = new ArrayList<>();
+            for (AtlasEntityHeader result : results) {
+                EntityDetail detail = detailsByGuid.get(result.getGuid());
+                if (detail != null) {
+                    details.add(detail);
+                }
+            }
+            details.sort(comparator);
+            detailsByType.add(details);
+        }
+        return SequencingUtils.mergeSorted(detailsByType, comparator, elementsToSkip, pageSize);
 
     }
 
     /**
-     * Retrieves a list of EntityDetail objects given a list of AtlasEntityHeader objects.
+     * Retrieves a list of EntityDetail objects given a list of AtlasEntityHeader objects: the normal OMRS entity mapped
+     * from each, in the order of the headers. The full entities are retrieved from Apache Atlas in bulk, rather than
+     * making a separate call for each header.
      *
      * @param atlasEntities the Atlas entities for which to retrieve details
      * @param userId the user through which to do the retrieval
      * @return {@code List<EntityDetail>}
-     * @throws InvalidParameterException the guid is null.
      * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
      *                                  the metadata collection is stored.
-     * @throws UserNotAuthorizedException the userId is not permitted to perform this operation.
      */
     private List<EntityDetail> getEntityDetailsFromAtlasResults(List<AtlasEntityHeader> atlasEntities,
-                                                                String userId) throws
-            InvalidParameterException,
-            RepositoryErrorException,
-            UserNotAuthorizedException {
+                                                                String userId) throws RepositoryErrorException {
 
         List<EntityDetail> entityDetails = new ArrayList<>();
-
         if (atlasEntities != null) {
-            for (AtlasEntityHeader atlasEntityHeader : atlasEntities) {
-                try {
-                    EntityDetail detail = getEntityDetail(userId, atlasEntityHeader.getGuid());
-                    entityDetails.add(detail);
-                } catch (EntityNotKnownException e) {
-                    if (log.isErrorEnabled()) {
-                        log.error("Entity with GUID {} not known -- excluding from results.", atlasEntityHeader.getGuid());
+            for (List<EntityDetail> details : getMappedEntitiesFromAtlasResults(atlasEntities, Collections.singletonList(null), userId).values()) {
+                entityDetails.addAll(details);
+            }
+        }
+        return entityDetails;
+
+    }
+
+    /**
+     * Retrieves the OMRS entities mapped from each of the provided Apache Atlas entity headers, for each of the provided
+     * prefixes. The full entities are retrieved from Apache Atlas in bulk (and only once, whatever the prefixes).
+     *
+     * @param atlasEntities the Atlas entities for which to retrieve details
+     * @param prefixes the prefixes of the (generated) OMRS entities to map from each, including null for the normal one
+     * @param userId the user through which to do the retrieval
+     * @return {@code LinkedHashMap<String, List<EntityDetail>>} keyed by Apache Atlas GUID, in the order of the
+     *         headers, with every GUID present (even any whose entity cannot be retrieved or mapped)
+     * @throws RepositoryErrorException there is a problem communicating with the metadata repository where
+     *                                  the metadata collection is stored.
+     */
+    private LinkedHashMap<String, List<EntityDetail>> getMappedEntitiesFromAtlasResults(List<AtlasEntityHeader> atlasEntities,
+                                                                                      List<String> prefixes,
+                                                                                      String userId) throws RepositoryErrorException {
+
+        LinkedHashMap<String, List<EntityDetail>> mappedEntities = new LinkedHashMap<>();
+        List<String> guids = new ArrayList<>();
+        for (AtlasEntityHeader atlasEntityHeader : atlasEntities) {
+            guids.add(atlasEntityHeader.getGuid());
+        }
+        Map<String, AtlasEntity.AtlasEntityWithExtInfo> atlasEntitiesByGuid = guids.isEmpty()
+                ? Collections.emptyMap()
+                : atlasRepositoryConnector.getEntitiesByGUIDs(guids, false, true);
+        for (String guid : guids) {
+            List<EntityDetail> details = new ArrayList<>();
+            AtlasEntity.AtlasEntityWithExtInfo entity = atlasEntitiesByGuid.get(guid);
+            if (entity == null) {
+                if (log.isErrorEnabled()) {
+                    log.error("Entity with GUID {} not known -- excluding from results.", guid);
+                }
+            } else {
+                for (String prefix : prefixes) {
+                    EntityMappingAtlas2OMRS mapping = new EntityMappingAtlas2OMRS(atlasRepositoryConnector, typeDefStore, attributeTypeDefStore, entity, prefix, userId);
+                    EntityDetail detail = mapping.getEntityDetail();
+                    if (detail != null) {
+                        details.add(detail);
                     }
                 }
             }
+            mappedEntities.put(guid, details);
         }
-
-        return entityDetails;
+        return mappedEntities;
 
     }
 
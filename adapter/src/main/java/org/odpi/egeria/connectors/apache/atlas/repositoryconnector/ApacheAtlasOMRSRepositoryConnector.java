@@ -14,7 +14,18 @@ import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.ApacheAtlasRestClient;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.AtlasEndpointPool;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.CircuitBreaker;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.HedgingPolicy;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.RequestBudget;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.ResilientInvoker;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client.SingleFlight;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores.BoundedCache;
+import org.odpi.openmetadata.frameworks.connectors.ffdc.ConnectorCheckedException;
 import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntitySummary;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.typedefs.TypeDefCategory;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
 import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSRuntimeException;
@@ -28,7 +39,10 @@ import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector {
 
@@ -36,8 +50,48 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
 
     public static final String EP_ENTITY = "/api/atlas/v2/entity/guid/";
 
+    private static final int DEFAULT_BULK_CHUNK_SIZE = 100;
+    private static final int DEFAULT_ENTITY_CACHE_SIZE = 1000;
+    private static final int DEFAULT_ENTITY_CACHE_TTL = 60;
+    private static final int DEFAULT_MAPPED_CACHE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_THREADS = 8;
+    private static final int DEFAULT_SEARCH_TIMEOUT = 60;
+    private static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 10000;
+    private static final int DEFAULT_HTTP_READ_TIMEOUT = 60000;
+    private static final int DEFAULT_RETRY_ATTEMPTS = 3;
+    private static final int DEFAULT_RETRY_BACKOFF = 100;
+    private static final int DEFAULT_RETRY_BACKOFF_MAX = 2000;
+    private static final int DEFAULT_BREAKER_THRESHOLD = 5;
+    private static final int DEFAULT_BREAKER_OPEN = 30000;
+    private static final int DEFAULT_SEARCH_CONCURRENCY = 16;
+    private static final int DEFAULT_READ_CONCURRENCY = 32;
+    private static final int DEFAULT_WRITE_CONCURRENCY = 8;
+    private static final int DEFAULT_EJECT_THRESHOLD = 3;
+    private static final int DEFAULT_HEALTH_INTERVAL = 10000;
+    private static final int DEFAULT_HEDGE_PERCENTILE = 95;
+    private static final int DEFAULT_HEDGE_DELAY_MIN = 50;
+    private static final int DEFAULT_HEDGE_BUDGET = 10;
+    private static final int DEFAULT_HEDGE_THREADS = 16;
+    private static final int INVALIDATION_STRIPES = 1024;
+
     private String url;
-    private AtlasClientV2 atlasClient;
+    private AtlasEndpointPool atlasEndpoints;
+    private ResilientInvoker atlasInvoker;
+    private RequestBudget searchBudget;
+    private RequestBudget readBudget;
+    private RequestBudget writeBudget;
+    private HedgingPolicy entityHedging;
+    private int bulkChunkSize = DEFAULT_BULK_CHUNK_SIZE;
+    private BoundedCache<String, AtlasEntity.AtlasEntityWithExtInfo> entityCache;
+    private BoundedCache<String, EntityDetail> mappedEntityDetailCache;
+    private BoundedCache<String, EntitySummary> mappedEntitySummaryCache;
+    private final SingleFlight<String, AtlasEntity.AtlasEntityWithExtInfo> entityRequests = new SingleFlight<>();
+    // Counts the invalidations of the entities whose GUIDs fall into each stripe, so that a retrieval that was already
+    // in flight when its entity was invalidated neither caches nor shares its (possibly outdated) result
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final SingleFlight<String, AtlasSearchResult> dslRequests = new SingleFlight<>();
+    private ExecutorService searchExecutor;
+    private int searchTimeout = DEFAULT_SEARCH_TIMEOUT;
     private boolean successfulInit = false;
 
     /**
@@ -66,13 +120,70 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
         this.url = (String) proxyProperties.get("apache.atlas.rest.url");
         String username = (String) proxyProperties.get("apache.atlas.username");
         String password = (String) proxyProperties.get("apache.atlas.password");
-
-        this.atlasClient = new AtlasClientV2(new String[]{ getBaseURL() }, new String[]{ username, password });
+        this.bulkChunkSize = Math.max(1, getIntegerProperty(proxyProperties, "apache.atlas.bulk.chunksize", DEFAULT_BULK_CHUNK_SIZE));
+        int entityCacheSize = getIntegerProperty(proxyProperties, "apache.atlas.cache.entity.size", DEFAULT_ENTITY_CACHE_SIZE);
+        int entityCacheTTL = getIntegerProperty(proxyProperties, "apache.atlas.cache.entity.ttl", DEFAULT_ENTITY_CACHE_TTL);
+        this.entityCache = new BoundedCache<>(entityCacheSize, entityCacheTTL * 1000L);
+        // Mapped entities are only ever re-used for the same version of an Apache Atlas entity, so need not expire
+        int mappedCacheSize = getIntegerProperty(proxyProperties, "apache.atlas.cache.mapped.size", DEFAULT_MAPPED_CACHE_SIZE);
+        this.mappedEntityDetailCache = new BoundedCache<>(mappedCacheSize, 0);
+        this.mappedEntitySummaryCache = new BoundedCache<>(mappedCacheSize, 0);
+        int searchThreads = Math.max(1, getIntegerProperty(proxyProperties, "apache.atlas.search.threads", DEFAULT_SEARCH_THREADS));
+        this.searchTimeout = getIntegerProperty(proxyProperties, "apache.atlas.search.timeout", DEFAULT_SEARCH_TIMEOUT);
+        this.searchExecutor = newBoundedExecutor("ApacheAtlasSearch", searchThreads);
+
+        // Searches get a client of their own, so that they can be given longer to respond than other requests
+        int connectTimeout = getIntegerProperty(proxyProperties, "apache.atlas.http.connect.timeout", DEFAULT_HTTP_CONNECT_TIMEOUT);
+        int readTimeout = getIntegerProperty(proxyProperties, "apache.atlas.http.read.timeout", DEFAULT_HTTP_READ_TIMEOUT);
+        int searchReadTimeout = getIntegerProperty(proxyProperties, "apache.atlas.http.search.read.timeout", Math.max(searchTimeout, 0) * 1000);
+        boolean gzipResponses = getBooleanProperty(proxyProperties, "apache.atlas.http.gzip", true);
+        boolean gzipRequests = getBooleanProperty(proxyProperties, "apache.atlas.http.gzip.requests", false);
+
+        // Reads are retried on transient failures, and every call goes through the circuit breaker of its endpoint
+        int retryAttempts = getIntegerProperty(proxyProperties, "apache.atlas.retry.attempts", DEFAULT_RETRY_ATTEMPTS);
+        int retryBackoff = getIntegerProperty(proxyProperties, "apache.atlas.retry.backoff", DEFAULT_RETRY_BACKOFF);
+        int retryBackoffMax = getIntegerProperty(proxyProperties, "apache.atlas.retry.backoff.max", DEFAULT_RETRY_BACKOFF_MAX);
+        int breakerThreshold = getIntegerProperty(proxyProperties, "apache.atlas.breaker.threshold", DEFAULT_BREAKER_THRESHOLD);
+        int breakerOpen = getIntegerProperty(proxyProperties, "apache.atlas.breaker.open", DEFAULT_BREAKER_OPEN);
+        this.atlasInvoker = new ResilientInvoker(retryAttempts, retryBackoff, retryBackoffMax);
+
+        // Searches, reads and writes each have a budget of their own, so that a burst of (expensive) searches cannot
+        // hold up the reads on which event processing depends, nor the reverse
+        this.searchBudget = getRequestBudget(proxyProperties, "search", DEFAULT_SEARCH_CONCURRENCY);
+        this.readBudget = getRequestBudget(proxyProperties, "read", DEFAULT_READ_CONCURRENCY);
+        this.writeBudget = getRequestBudget(proxyProperties, "write", DEFAULT_WRITE_CONCURRENCY);
+
+        // Writes go to the active endpoint, while reads and searches can be spread across any number of endpoints
+        // (for example read replicas), ejecting any that keep failing until they are found to be healthy again
+        String[] credentials = new String[]{ username, password };
+        ApacheAtlasRestClient.Settings settings = new ApacheAtlasRestClient.Settings(connectTimeout, readTimeout, gzipResponses, gzipRequests);
+        ApacheAtlasRestClient.Settings searchSettings = new ApacheAtlasRestClient.Settings(connectTimeout, searchReadTimeout, gzipResponses, gzipRequests);
+        AtlasEndpointPool.Endpoint active = newEndpoint(getBaseURL(), credentials, settings, searchSettings, breakerThreshold, breakerOpen);
+        List<AtlasEndpointPool.Endpoint> readEndpoints = new ArrayList<>();
+        if (getBooleanProperty(proxyProperties, "apache.atlas.rest.read.active", true)) {
+            readEndpoints.add(active);
+        }
+        for (String readUrl : getListProperty(proxyProperties, "apache.atlas.rest.read.urls")) {
+            if (!readUrl.equals(getBaseURL())) {
+                readEndpoints.add(newEndpoint(readUrl, credentials, settings, searchSettings, breakerThreshold, breakerOpen));
+            }
+        }
+        this.atlasEndpoints = new AtlasEndpointPool(active, readEndpoints,
+                AtlasEndpointPool.Balancing.fromName((String) proxyProperties.get("apache.atlas.rest.read.balancing"), AtlasEndpointPool.Balancing.LEAST_OUTSTANDING),
+                getIntegerProperty(proxyProperties, "apache.atlas.rest.eject.threshold", DEFAULT_EJECT_THRESHOLD));
+        atlasEndpoints.startHealthChecks(getIntegerProperty(proxyProperties, "apache.atlas.rest.health.interval", DEFAULT_HEALTH_INTERVAL));
+
+        // Requests for single entities can be hedged, so that an occasional slow response does not hold up the caller
+        this.entityHedging = new HedgingPolicy(getBooleanProperty(proxyProperties, "apache.atlas.hedge", false),
+                getIntegerProperty(proxyProperties, "apache.atlas.hedge.percentile", DEFAULT_HEDGE_PERCENTILE),
+                getIntegerProperty(proxyProperties, "apache.atlas.hedge.delay.min", DEFAULT_HEDGE_DELAY_MIN),
+                getIntegerProperty(proxyProperties, "apache.atlas.hedge.budget", DEFAULT_HEDGE_BUDGET),
+                getIntegerProperty(proxyProperties, "apache.atlas.hedge.threads", DEFAULT_HEDGE_THREADS));
 
         // Test REST API connection by attempting to retrieve types list
         AtlasTypesDef atlasTypes = null;
         try {
-            atlasTypes = atlasClient.getAllTypeDefs(new SearchFilter());
+            atlasTypes = atlasInvoker.read("getAllTypeDefs", readBudget, atlasEndpoints.onActive(client -> client.getAllTypeDefs(new SearchFilter())));
             successfulInit = (atlasTypes != null && atlasTypes.hasEntityDef("Referenceable"));
         } catch (AtlasServiceException e) {
             log.error("Unable to retrieve types from Apache Atlas.", e);
@@ -86,7 +197,7 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
             InputStream stream = mappingResource.getInputStream();
             ObjectMapper mapper = new ObjectMapper();
             AtlasTypesDef atlasTypesDef = mapper.readValue(stream, AtlasTypesDef.class);
-            atlasClient.updateAtlasTypeDefs(atlasTypesDef);
+            atlasInvoker.write("updateAtlasTypeDefs", writeBudget, atlasEndpoints.onActive(client -> client.updateAtlasTypeDefs(atlasTypesDef)));
 
         } catch (IOException e) {
             log.error("Unable to load ApacheAtlasNativeTypesPatch.json from jar file -- cannot patch default Apache Atlas types.", e);
@@ -109,6 +220,25 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
 
     }
 
+    /**
+     * Free up any resources held since the connector is no longer needed.
+     *
+     * @throws ConnectorCheckedException there is a problem within the connector.
+     */
+    @Override
+    public void disconnect() throws ConnectorCheckedException {
+        super.disconnect();
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+        if (atlasEndpoints != null) {
+            atlasEndpoints.shutdown();
+        }
+        if (entityHedging != null) {
+            entityHedging.shutdown();
+        }
+    }
+
     /**
      * Set up the unique Id for this metadata collection.
      *
@@ -146,7 +276,7 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
      * @return boolean
      */
     public boolean typeDefExistsByName(String name) {
-        return atlasClient.typeWithNameExists(name);
+        return atlasEndpoints.getActive().getClient().typeWithNameExists(name);
     }
 
     /**
@@ -162,17 +292,17 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
         try {
             switch(typeDefCategory) {
                 case CLASSIFICATION_DEF:
-                    result = atlasClient.getClassificationDefByName(name);
+                    result = atlasInvoker.read("getClassificationDefByName " + name, readBudget, atlasEndpoints.onActive(client -> client.getClassificationDefByName(name)));
                     break;
                 case ENTITY_DEF:
-                    result = atlasClient.getEntityDefByName(name);
+                    result = atlasInvoker.read("getEntityDefByName " + name, readBudget, atlasEndpoints.onActive(client -> client.getEntityDefByName(name)));
                     break;
                 case RELATIONSHIP_DEF:
                     // For whatever reason, relationshipdef retrieval is not in the Atlas client, so writing our own
                     // API call for this one
                     String atlasPath = "relationshipdef";
                     AtlasBaseClient.API api = new AtlasBaseClient.API(String.format(AtlasClientV2.TYPES_API + "%s/name/%s", atlasPath, name), HttpMethod.GET, Response.Status.OK);
-                    result = atlasClient.callAPI(api, AtlasRelationshipDef.class, null);
+                    result = atlasInvoker.read("getRelationshipDefByName " + name, readBudget, atlasEndpoints.onActive(client -> client.callAPI(api, AtlasRelationshipDef.class, null)));
                     break;
                 default:
                     break;
@@ -206,7 +336,9 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
     }
 
     /**
-     * Retrieve an Apache Atlas Entity instance by its GUID.
+     * Retrieve an Apache Atlas Entity instance by its GUID. Concurrent requests for the same entity (with the same
+     * options) that are not already cached share a single call to Apache Atlas. A request made after the entity has
+     * been invalidated never shares a call that was made before the invalidation.
      *
      * @param guid the GUID of the entity instance to retrieve
      * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUID
@@ -215,9 +347,28 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
      * @return AtlasEntityWithExtInfo
      */
     public AtlasEntity.AtlasEntityWithExtInfo getEntityByGUID(String guid, boolean minimalExtraInfo, boolean ignoreRelationships, boolean logIfNotFound) {
+        return getEntityByGUID(guid, minimalExtraInfo, ignoreRelationships, logIfNotFound, false);
+    }
+
+    /**
+     * Retrieve an Apache Atlas Entity instance by its GUID, optionally hedging each attempt to retrieve it (if hedging
+     * is configured at all): for requests whose caller is waiting on the answer, such as retrieving a single entity
+     * through the repository's API.
+     *
+     * @param guid the GUID of the entity instance to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUID
+     * @param ignoreRelationships if true, will return only the entity (none of its relationships)
+     * @param logIfNotFound if true, will log any exception where the entity is not found, otherwise will not
+     * @param hedge if true, hedge each attempt to retrieve the entity with a duplicate if it has not returned in time
+     * @return AtlasEntityWithExtInfo
+     */
+    public AtlasEntity.AtlasEntityWithExtInfo getEntityByGUID(String guid, boolean minimalExtraInfo, boolean ignoreRelationships, boolean logIfNotFound, boolean hedge) {
         AtlasEntity.AtlasEntityWithExtInfo entity = null;
         try {
-            entity = atlasClient.getEntityByGuid(guid, minimalExtraInfo, ignoreRelationships);
+            entity = retrieveEntityByGUID(guid, minimalExtraInfo, ignoreRelationships, hedge);
+            if (entity == null && logIfNotFound) {
+                log.error("Unable to retrieve entity by GUID, not found: {}", guid);
+            }
         } catch (AtlasServiceException e) {
             if (logIfNotFound) {
                 log.error("Unable to retrieve entity by GUID: {}", guid, e);
@@ -226,6 +377,346 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
         return entity;
     }
 
+    /**
+     * Retrieve an Apache Atlas Entity instance by its GUID, distinguishing an entity that does not exist (null) from
+     * one that could not be retrieved (an exception). Concurrent requests for the same entity (with the same options)
+     * that are not already cached share a single call to Apache Atlas. A request made after the entity has been
+     * invalidated never shares a call that was made before the invalidation.
+     *
+     * @param guid the GUID of the entity instance to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUID
+     * @param ignoreRelationships if true, will return only the entity (none of its relationships)
+     * @return AtlasEntityWithExtInfo, or null if there is no such entity
+     * @throws AtlasServiceException if the entity could not be retrieved (for example, Apache Atlas is unreachable)
+     */
+    public AtlasEntity.AtlasEntityWithExtInfo retrieveEntityByGUID(String guid, boolean minimalExtraInfo, boolean ignoreRelationships) throws AtlasServiceException {
+        return retrieveEntityByGUID(guid, minimalExtraInfo, ignoreRelationships, false);
+    }
+
+    /**
+     * Retrieve an Apache Atlas Entity instance by its GUID, distinguishing an entity that does not exist (null) from
+     * one that could not be retrieved (an exception), and optionally hedging each attempt to retrieve it.
+     *
+     * @param guid the GUID of the entity instance to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUID
+     * @param ignoreRelationships if true, will return only the entity (none of its relationships)
+     * @param hedge if true, hedge each attempt to retrieve the entity with a duplicate if it has not returned in time
+     * @return AtlasEntityWithExtInfo, or null if there is no such entity
+     * @throws AtlasServiceException if the entity could not be retrieved (for example, Apache Atlas is unreachable)
+     */
+    public AtlasEntity.AtlasEntityWithExtInfo retrieveEntityByGUID(String guid, boolean minimalExtraInfo, boolean ignoreRelationships, boolean hedge) throws AtlasServiceException {
+        String cacheKey = getEntityCacheKey(guid, minimalExtraInfo, ignoreRelationships);
+        AtlasEntity.AtlasEntityWithExtInfo entity = entityCache.get(cacheKey);
+        if (entity == null) {
+            long generation = getInvalidationGeneration(guid);
+            try {
+                entity = entityRequests.execute(cacheKey + "#" + generation, () -> {
+                    AtlasEntity.AtlasEntityWithExtInfo retrieved = null;
+                    try {
+                        retrieved = atlasInvoker.read("getEntityByGuid " + guid, readBudget,
+                                atlasEndpoints.forRead(client -> client.getEntityByGuid(guid, minimalExtraInfo, ignoreRelationships)),
+                                hedge ? entityHedging : null);
+                        cacheEntity(guid, cacheKey, generation, retrieved);
+                    } catch (AtlasServiceException e) {
+                        if (!isNotFound(e)) {
+                            // Carried through the shared call to every caller, and unwrapped again below
+                            throw new RetrievalFailure(e);
+                        }
+                    }
+                    return retrieved;
+                });
+            } catch (RetrievalFailure e) {
+                throw e.getCause();
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Retrieve a number of Apache Atlas Entity instances by their GUIDs, using as few calls to Apache Atlas as possible.
+     * The GUIDs are retrieved in chunks (of the size configured by 'apache.atlas.bulk.chunksize'), and any chunk that
+     * cannot be retrieved in bulk (for example because one of its GUIDs no longer exists) is retrieved one-by-one.
+     * Any entities already in the entity cache are taken from the cache rather than retrieved again. The chunks are
+     * retrieved one after another on the caller's thread: the client blocks on every call, so retrieving them
+     * concurrently would only tie up another thread per chunk (and risk deadlock if called from one of those threads).
+     *
+     * @param guids the GUIDs of the entity instances to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUIDs
+     * @param ignoreRelationships if true, will return only the entities (none of their relationships)
+     * @return {@code Map<String, AtlasEntityWithExtInfo>} keyed by GUID, containing only those entities that were found
+     */
+    public Map<String, AtlasEntity.AtlasEntityWithExtInfo> getEntitiesByGUIDs(Collection<String> guids,
+                                                                              boolean minimalExtraInfo,
+                                                                              boolean ignoreRelationships) {
+
+        Map<String, AtlasEntity.AtlasEntityWithExtInfo> results = new HashMap<>();
+        for (List<String> chunk : getUncachedChunks(guids, minimalExtraInfo, ignoreRelationships, results)) {
+            results.putAll(getEntityChunk(chunk, minimalExtraInfo, ignoreRelationships));
+        }
+        return results;
+
+    }
+
+    /**
+     * Split the provided GUIDs into the chunks in which to retrieve them, leaving out (and instead collecting) any
+     * whose entities are already cached.
+     *
+     * @param guids the GUIDs of the entity instances to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUIDs
+     * @param ignoreRelationships if true, will return only the entities (none of their relationships)
+     * @param cached into which to collect the entities that are already cached, keyed by GUID
+     * @return {@code List<List<String>>} the chunks of GUIDs still to retrieve
+     */
+    private List<List<String>> getUncachedChunks(Collection<String> guids,
+                                                 boolean minimalExtraInfo,
+                                                 boolean ignoreRelationships,
+                                                 Map<String, AtlasEntity.AtlasEntityWithExtInfo> cached) {
+        List<List<String>> chunks = new ArrayList<>();
+        if (guids != null && !guids.isEmpty()) {
+            List<String> uniqueGuids = new ArrayList<>();
+            for (String guid : new LinkedHashSet<>(guids)) {
+                AtlasEntity.AtlasEntityWithExtInfo entity = entityCache.get(getEntityCacheKey(guid, minimalExtraInfo, ignoreRelationships));
+                if (entity != null) {
+                    cached.put(guid, entity);
+                } else {
+                    uniqueGuids.add(guid);
+                }
+            }
+            for (int i = 0; i < uniqueGuids.size(); i += bulkChunkSize) {
+                chunks.add(new ArrayList<>(uniqueGuids.subList(i, Math.min(i + bulkChunkSize, uniqueGuids.size()))));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Retrieve a single chunk of Apache Atlas Entity instances by their GUIDs: in bulk, or one-by-one if the bulk
+     * retrieval fails.
+     *
+     * @param chunk the GUIDs of the entity instances to retrieve
+     * @param minimalExtraInfo if true, minimize the amount of extra information retrieved about the GUIDs
+     * @param ignoreRelationships if true, will return only the entities (none of their relationships)
+     * @return {@code Map<String, AtlasEntityWithExtInfo>} keyed by GUID, containing only those entities that were found
+     */
+    private Map<String, AtlasEntity.AtlasEntityWithExtInfo> getEntityChunk(List<String> chunk,
+                                                                          boolean minimalExtraInfo,
+                                                                          boolean ignoreRelationships) {
+        Map<String, AtlasEntity.AtlasEntityWithExtInfo> results = new HashMap<>();
+        Map<String, Long> generations = new HashMap<>();
+        for (String guid : chunk) {
+            generations.put(guid, getInvalidationGeneration(guid));
+        }
+        try {
+            AtlasEntity.AtlasEntitiesWithExtInfo entities = atlasInvoker.read("getEntitiesByGuids", readBudget, atlasEndpoints.forRead(client -> client.getEntitiesByGuids(chunk, minimalExtraInfo, ignoreRelationships)));
+            if (entities != null && entities.getEntities() != null) {
+                for (AtlasEntity entity : entities.getEntities()) {
+                    AtlasEntity.AtlasEntityWithExtInfo result = new AtlasEntity.AtlasEntityWithExtInfo(entity, entities);
+                    results.put(entity.getGuid(), result);
+                    Long generation = generations.get(entity.getGuid());
+                    if (generation != null) {
+                        cacheEntity(entity.getGuid(), getEntityCacheKey(entity.getGuid(), minimalExtraInfo, ignoreRelationships), generation, result);
+                    }
+                }
+            }
+        } catch (AtlasServiceException e) {
+            // Apache Atlas fails the entire bulk request if any single GUID is unknown, so fall back to
+            // retrieving this chunk one entity at a time
+            if (log.isDebugEnabled()) { log.debug("Unable to retrieve entities in bulk, falling back to individual retrieval: {}", chunk, e); }
+            for (String guid : chunk) {
+                AtlasEntity.AtlasEntityWithExtInfo entity = getEntityByGUID(guid, minimalExtraInfo, ignoreRelationships, false);
+                if (entity != null) {
+                    results.put(guid, entity);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Remove any cached details of the Apache Atlas Entity instance with the provided GUID (including any OMRS
+     * entities mapped from it), so that the next retrieval of the entity goes to Apache Atlas itself.
+     *
+     * @param guid the GUID of the entity instance that has changed
+     */
+    public void invalidateCachedEntity(String guid) {
+        if (guid != null) {
+            // Counted before removing the cached details, so that no retrieval already in flight can cache them again
+            invalidations.incrementAndGet(getInvalidationStripe(guid));
+            String keyPrefix = guid + "|";
+            entityCache.removeIf(key -> key.startsWith(keyPrefix));
+            mappedEntityDetailCache.removeIf(key -> key.startsWith(keyPrefix));
+            mappedEntitySummaryCache.removeIf(key -> key.startsWith(keyPrefix));
+        }
+    }
+
+    /**
+     * Cache the provided Apache Atlas Entity instance, unless the entity has been invalidated since its retrieval
+     * started (in which case the instance retrieved may already be out-of-date).
+     *
+     * @param guid the GUID of the entity instance
+     * @param cacheKey the key under which to cache the entity instance
+     * @param generation the invalidation generation of the entity when its retrieval started
+     * @param entity the entity instance retrieved
+     */
+    private void cacheEntity(String guid, String cacheKey, long generation, AtlasEntity.AtlasEntityWithExtInfo entity) {
+        int stripe = getInvalidationStripe(guid);
+        if (invalidations.get(stripe) == generation) {
+            entityCache.put(cacheKey, entity);
+            // The entity may have been invalidated between the check and the put, after its cached details were removed
+            if (invalidations.get(stripe) != generation) {
+                entityCache.remove(cacheKey);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the current invalidation generation of the entity with the provided GUID: which changes whenever the
+     * entity (or another whose GUID shares its stripe) is invalidated.
+     *
+     * @param guid the GUID of the entity instance
+     * @return long
+     */
+    private long getInvalidationGeneration(String guid) {
+        return invalidations.get(getInvalidationStripe(guid));
+    }
+
+    /**
+     * Retrieve the stripe into which the provided GUID falls, for counting invalidations.
+     *
+     * @param guid the GUID of the entity instance
+     * @return int
+     */
+    private static int getInvalidationStripe(String guid) {
+        return (guid.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+
+    /**
+     * Retrieve the cache of Apache Atlas Entity instances, for example to review its hit and miss statistics.
+     *
+     * @return {@code BoundedCache<String, AtlasEntityWithExtInfo>}
+     */
+    public BoundedCache<String, AtlasEntity.AtlasEntityWithExtInfo> getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Retrieve the cache of OMRS EntityDetail objects already mapped from Apache Atlas entities, keyed by the Apache
+     * Atlas GUID and generated-entity prefix.
+     *
+     * @return {@code BoundedCache<String, EntityDetail>}
+     */
+    public BoundedCache<String, EntityDetail> getMappedEntityDetailCache() {
+        return mappedEntityDetailCache;
+    }
+
+    /**
+     * Retrieve the cache of OMRS EntitySummary objects already mapped from Apache Atlas entities, keyed by the Apache
+     * Atlas GUID and generated-entity prefix.
+     *
+     * @return {@code BoundedCache<String, EntitySummary>}
+     */
+    public BoundedCache<String, EntitySummary> getMappedEntitySummaryCache() {
+        return mappedEntitySummaryCache;
+    }
+
+    /**
+     * Retrieve the coalescing of concurrent requests for the same entity, for example to review how many requests
+     * shared a call to Apache Atlas.
+     *
+     * @return {@code SingleFlight<String, AtlasEntityWithExtInfo>}
+     */
+    public SingleFlight<String, AtlasEntity.AtlasEntityWithExtInfo> getEntityRequests() {
+        return entityRequests;
+    }
+
+    /**
+     * Retrieve the coalescing of concurrent searches with the same DSL query, for example to review how many searches
+     * shared a call to Apache Atlas.
+     *
+     * @return {@code SingleFlight<String, AtlasSearchResult>}
+     */
+    public SingleFlight<String, AtlasSearchResult> getDslRequests() {
+        return dslRequests;
+    }
+
+    /**
+     * Retrieve the means by which every call is made to Apache Atlas, for example to review how many calls have been
+     * retried or have failed.
+     *
+     * @return ResilientInvoker
+     */
+    public ResilientInvoker getAtlasInvoker() {
+        return atlasInvoker;
+    }
+
+    /**
+     * Retrieve the Apache Atlas endpoints to which requests are sent, for example to review how reads have been spread
+     * across them and which (if any) have been ejected.
+     *
+     * @return AtlasEndpointPool
+     */
+    public AtlasEndpointPool getAtlasEndpoints() {
+        return atlasEndpoints;
+    }
+
+    /**
+     * Retrieve the hedging of reads of single entities, for example to review how many reads have been hedged and
+     * how often the hedge returned first.
+     *
+     * @return HedgingPolicy
+     */
+    public HedgingPolicy getEntityHedging() {
+        return entityHedging;
+    }
+
+    /**
+     * Retrieve the budget within which searches are run against Apache Atlas, for example to review how many are in
+     * flight or waiting.
+     *
+     * @return RequestBudget
+     */
+    public RequestBudget getSearchBudget() {
+        return searchBudget;
+    }
+
+    /**
+     * Retrieve the budget within which instances and type definitions are read from Apache Atlas.
+     *
+     * @return RequestBudget
+     */
+    public RequestBudget getReadBudget() {
+        return readBudget;
+    }
+
+    /**
+     * Retrieve the budget within which instances and type definitions are written to Apache Atlas.
+     *
+     * @return RequestBudget
+     */
+    public RequestBudget getWriteBudget() {
+        return writeBudget;
+    }
+
+    /**
+     * Retrieve the executor through which multiple searches against Apache Atlas can be run concurrently. The number
+     * of searches that will run at the same time is bounded by 'apache.atlas.search.threads'.
+     *
+     * @return ExecutorService
+     */
+    public ExecutorService getSearchExecutor() {
+        return searchExecutor;
+    }
+
+    /**
+     * Retrieve the number of seconds within which all of the searches for a single request must complete, as
+     * configured by 'apache.atlas.search.timeout' (0 or less for no limit).
+     *
+     * @return int
+     */
+    public int getSearchTimeout() {
+        return searchTimeout;
+    }
+
     /**
      * Retrieves an Apache Atlas Relationship instance by its GUID.
      *
@@ -246,13 +737,36 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
     public AtlasRelationship.AtlasRelationshipWithExtInfo getRelationshipByGUID(String guid, boolean extendedInfo) {
         AtlasRelationship.AtlasRelationshipWithExtInfo relationship = null;
         try {
-            relationship = atlasClient.getRelationshipByGuid(guid, extendedInfo);
+            relationship = retrieveRelationshipByGUID(guid, extendedInfo);
+            if (relationship == null) {
+                log.error("Unable to retrieve relationship by GUID, not found: {}", guid);
+            }
         } catch (AtlasServiceException e) {
             log.error("Unable to retrieve relationship by GUID: {}", guid, e);
         }
         return relationship;
     }
 
+    /**
+     * Retrieves an Apache Atlas Relationship instance by its GUID, distinguishing a relationship that does not exist
+     * (null) from one that could not be retrieved (an exception).
+     *
+     * @param guid the GUID of the relationship instance to retrieve
+     * @param extendedInfo if true, will include extended info in the result
+     * @return AtlasRelationshipWithExtInfo, or null if there is no such relationship
+     * @throws AtlasServiceException if the relationship could not be retrieved (for example, Apache Atlas is unreachable)
+     */
+    public AtlasRelationship.AtlasRelationshipWithExtInfo retrieveRelationshipByGUID(String guid, boolean extendedInfo) throws AtlasServiceException {
+        try {
+            return atlasInvoker.read("getRelationshipByGuid " + guid, readBudget, atlasEndpoints.forRead(client -> client.getRelationshipByGuid(guid, extendedInfo)));
+        } catch (AtlasServiceException e) {
+            if (isNotFound(e)) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Adds the list of TypeDefs provided to Apache Atlas.
      *
@@ -262,7 +776,7 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
     public AtlasTypesDef createTypeDef(AtlasTypesDef typeDefs) {
         AtlasTypesDef result = null;
         try {
-            result = atlasClient.createAtlasTypeDefs(typeDefs);
+            result = atlasInvoker.write("createAtlasTypeDefs", writeBudget, atlasEndpoints.onActive(client -> client.createAtlasTypeDefs(typeDefs)));
         } catch (AtlasServiceException e) {
             log.error("Unable to create provided TypeDefs: {}", typeDefs, e);
         }
@@ -279,7 +793,7 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
         AtlasSearchResult result = null;
         try {
             if (log.isInfoEnabled()) { log.info("Searching Atlas with: {}", searchParameters); }
-            result = atlasClient.facetedSearch(searchParameters);
+            result = atlasInvoker.read("facetedSearch", searchBudget, atlasEndpoints.forSearch(client -> client.facetedSearch(searchParameters)));
         } catch (AtlasServiceException e) {
             log.error("Unable to search based on parameters: {}", searchParameters, e);
         }
@@ -287,20 +801,23 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
     }
 
     /**
-     * Search for entities based one provided DSL query string.
+     * Search for entities based one provided DSL query string. Concurrent searches with the same query share a single
+     * call to Apache Atlas.
      *
      * @param dslQuery the query to use for the search
      * @return AtlasSearchResult
      */
     public AtlasSearchResult searchWithDSL(String dslQuery) {
-        AtlasSearchResult result = null;
-        try {
-            if (log.isInfoEnabled()) { log.info("Searching Atlas with: {}", dslQuery); }
-            result = atlasClient.dslSearch(dslQuery);
-        } catch (AtlasServiceException e) {
-            log.error("Unable to search based on DSL query: {}", dslQuery, e);
-        }
-        return result;
+        return dslRequests.execute(dslQuery, () -> {
+            AtlasSearchResult result = null;
+            try {
+                if (log.isInfoEnabled()) { log.info("Searching Atlas with: {}", dslQuery); }
+                result = atlasInvoker.read("dslSearch", searchBudget, atlasEndpoints.forSearch(client -> client.dslSearch(dslQuery)));
+            } catch (AtlasServiceException e) {
+                log.error("Unable to search based on DSL query: {}", dslQuery, e);
+            }
+            return result;
+        });
     }
 
     /**
@@ -314,14 +831,179 @@ public class ApacheAtlasOMRSRepositoryConnector extends OMRSRepositoryConnector
         EntityMutationResponse result = null;
         try {
             if (create) {
-                result = atlasClient.createEntity(atlasEntity);
+                result = atlasInvoker.write("createEntity", writeBudget, atlasEndpoints.onActive(client -> client.createEntity(atlasEntity)));
             } else {
-                result = atlasClient.updateEntity(atlasEntity);
+                result = atlasInvoker.write("updateEntity", writeBudget, atlasEndpoints.onActive(client -> client.updateEntity(atlasEntity)));
             }
+            invalidateCachedEntity(atlasEntity.getEntity().getGuid());
         } catch (AtlasServiceException e) {
             log.error("Unable to save entity: {}", atlasEntity, e);
         }
         return result;
     }
 
+    /**
+     * Indicates whether the provided failure is Apache Atlas reporting that the requested instance does not exist.
+     *
+     * @param e the failure
+     * @return boolean
+     */
+    private static boolean isNotFound(AtlasServiceException e) {
+        return e.getStatus() != null && e.getStatus().getStatusCode() == Response.Status.NOT_FOUND.getStatusCode();
+    }
+
+    /**
+     * Construct the key under which an entity is cached, as the details retrieved for an entity vary by the options
+     * used to retrieve it.
+     *
+     * @param guid the GUID of the entity instance
+     * @param minimalExtraInfo whether the entity was retrieved with minimal extra information
+     * @param ignoreRelationships whether the entity was retrieved without its relationships
+     * @return String
+     */
+    private static String getEntityCacheKey(String guid, boolean minimalExtraInfo, boolean ignoreRelationships) {
+        return guid + "|" + minimalExtraInfo + "|" + ignoreRelationships;
+    }
+
+    /**
+     * Create an executor with a fixed number of (daemon) threads, so that it never prevents the JVM from stopping.
+     *
+     * @param name the name to use as the prefix for each thread of the executor
+     * @param threads the number of threads for the executor
+     * @return ExecutorService
+     */
+    private static ExecutorService newBoundedExecutor(String name, int threads) {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create an Apache Atlas endpoint, with its own clients for searches and for all other calls, and its own circuit
+     * breaker.
+     *
+     * @param url the base URL of the endpoint
+     * @param credentials the user name and password with which to connect
+     * @param settings the settings for the HTTP transport of most calls
+     * @param searchSettings the settings for the HTTP transport of searches
+     * @param breakerThreshold the number of calls in a row that must fail for the endpoint's circuit breaker to open
+     * @param breakerOpen the number of milliseconds for which the endpoint's circuit breaker stays open
+     * @return AtlasEndpointPool.Endpoint
+     */
+    private static AtlasEndpointPool.Endpoint newEndpoint(String url,
+                                                          String[] credentials,
+                                                          ApacheAtlasRestClient.Settings settings,
+                                                          ApacheAtlasRestClient.Settings searchSettings,
+                                                          int breakerThreshold,
+                                                          int breakerOpen) {
+        String[] baseUrls = new String[]{ url };
+        return new AtlasEndpointPool.Endpoint(url,
+                ApacheAtlasRestClient.create(baseUrls, credentials, settings),
+                ApacheAtlasRestClient.create(baseUrls, credentials, searchSettings),
+                new CircuitBreaker(url, breakerThreshold, breakerOpen));
+    }
+
+    /**
+     * Create the budget for one kind of request, from its configuration properties: the sustained rate (requests per
+     * second, by default unlimited), the burst above that rate (by default one second's worth of requests) and the
+     * maximum number in flight at once.
+     *
+     * @param properties the configuration properties of the connection
+     * @param kind the kind of request (search, read or write)
+     * @param defaultConcurrency the maximum number of requests in flight at once, if not configured
+     * @return RequestBudget
+     */
+    private static RequestBudget getRequestBudget(Map<String, Object> properties, String kind, int defaultConcurrency) {
+        String prefix = "apache.atlas.limit." + kind;
+        int rate = getIntegerProperty(properties, prefix + ".rate", 0);
+        int burst = getIntegerProperty(properties, prefix + ".burst", rate);
+        int concurrency = getIntegerProperty(properties, prefix + ".concurrency", defaultConcurrency);
+        return new RequestBudget(kind, rate, burst, concurrency);
+    }
+
+    /**
+     * Retrieve an integer-valued configuration property, or the provided default if it is not set (or not a number).
+     *
+     * @param properties the configuration properties of the connection
+     * @param name the name of the configuration property
+     * @param defaultValue the value to use if the property is not set
+     * @return int
+     */
+    public static int getIntegerProperty(Map<String, Object> properties, String name, int defaultValue) {
+        int value = defaultValue;
+        Object candidate = properties == null ? null : properties.get(name);
+        if (candidate instanceof Number) {
+            value = ((Number) candidate).intValue();
+        } else if (candidate != null) {
+            try {
+                value = Integer.parseInt(candidate.toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Unable to parse configuration property '{}' as a number, using default of {}: {}", name, defaultValue, candidate);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Retrieve a list-valued configuration property, given either as a list or as a comma-separated string, or an
+     * empty list if it is not set.
+     *
+     * @param properties the configuration properties of the connection
+     * @param name the name of the configuration property
+     * @return {@code List<String>}
+     */
+    public static List<String> getListProperty(Map<String, Object> properties, String name) {
+        List<String> values = new ArrayList<>();
+        Object candidate = properties == null ? null : properties.get(name);
+        if (candidate instanceof Collection) {
+            for (Object value : (Collection<?>) candidate) {
+                if (value != null && !value.toString().trim().isEmpty()) {
+                    values.add(value.toString().trim());
+                }
+            }
+        } else if (candidate != null) {
+            for (String value : candidate.toString().split(",")) {
+                if (!value.trim().isEmpty()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Retrieve a boolean-valued configuration property, or the provided default if it is not set.
+     *
+     * @param properties the configuration properties of the connection
+     * @param name the name of the configuration property
+     * @param defaultValue the value to use if the property is not set
+     * @return boolean
+     */
+    public static boolean getBooleanProperty(Map<String, Object> properties, String name, boolean defaultValue) {
+        Object candidate = properties == null ? null : properties.get(name);
+        if (candidate instanceof Boolean) {
+            return (Boolean) candidate;
+        } else if (candidate != null) {
+            return Boolean.parseBoolean(candidate.toString().trim());
+        }
+        return defaultValue;
+    }
+
+    /**
+     * A failure to retrieve an instance from Apache Atlas, carried (unchecked) through a call shared by several callers.
+     */
+    private static final class RetrievalFailure extends RuntimeException {
+
+        RetrievalFailure(AtlasServiceException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized AtlasServiceException getCause() { return (AtlasServiceException) super.getCause(); }
+
+    }
+
 }
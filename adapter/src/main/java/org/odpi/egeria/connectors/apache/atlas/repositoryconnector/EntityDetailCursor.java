@@ -0,0 +1,325 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.ffdc.exception.OMRSRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Iterates lazily through all of the entities that match a search, without ever holding more than two pages of them
+ * in memory. Each mapped Apache Atlas type is walked in turn, in order of GUID, and each page is retrieved by asking
+ * for the entities whose GUID follows the last one already seen (rather than by an offset), so that every page costs
+ * the same to retrieve no matter how far into the results it is. While the entities of one page are being consumed,
+ * the next page is retrieved (and mapped) in the background.
+ *
+ * The position of the cursor can be captured at any point as an opaque continuation token, from which a new cursor
+ * can later carry on.
+ */
+public class EntityDetailCursor implements Iterator<EntityDetail>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityDetailCursor.class);
+
+    private static final String TOKEN_SEPARATOR = "\n";
+
+    private final String methodName;
+    private final String repositoryName;
+    private final List<String> atlasTypeNames;
+    private final int pageSize;
+    private final PageLoader pageLoader;
+    private final ExecutorService executor;
+    private final int timeout;
+
+    private Page currentPage;
+    private int currentIndex;
+    private Future<Page> nextPage;
+
+    private int positionTypeIndex;
+    private String positionGuid;
+
+    /**
+     * Retrieves a single page of entities from Apache Atlas.
+     */
+    @FunctionalInterface
+    interface PageLoader {
+
+        /**
+         * Retrieve the next page of entities of the provided Apache Atlas type.
+         *
+         * @param atlasTypeName the name of the Apache Atlas type for which to retrieve entities
+         * @param afterGuid the GUID after which to retrieve entities (or null to start from the first)
+         * @param pageSize the maximum number of entities to retrieve
+         * @return {@code LinkedHashMap<String, List<EntityDetail>>} of the entities in the page in GUID order, keyed by
+         *         Apache Atlas GUID, each with the OMRS entities mapped from it (none, if it could not be mapped)
+         * @throws Exception if the page could not be retrieved
+         */
+        LinkedHashMap<String, List<EntityDetail>> load(String atlasTypeName, String afterGuid, int pageSize) throws Exception;
+
+    }
+
+    /**
+     * Create a new cursor, starting either from the beginning or from the provided continuation token.
+     *
+     * @param methodName the name of the method that opened the cursor
+     * @param repositoryName the name of the repository being searched
+     * @param atlasTypeNames the names of the Apache Atlas types to walk through
+     * @param pageSize the number of entities to retrieve from Apache Atlas at a time
+     * @param continuationToken the token from which to carry on (or null to start from the beginning)
+     * @param pageLoader the means by which to retrieve each page of entities
+     * @param executor the executor through which to retrieve pages in the background
+     * @param timeout the number of seconds to wait for any single page to be retrieved (0 or less for no limit)
+     */
+    EntityDetailCursor(String methodName,
+                       String repositoryName,
+                       List<String> atlasTypeNames,
+                       int pageSize,
+                       String continuationToken,
+                       PageLoader pageLoader,
+                       ExecutorService executor,
+                       int timeout) {
+        this.methodName = methodName;
+        this.repositoryName = repositoryName;
+        this.atlasTypeNames = new ArrayList<>(new TreeSet<>(atlasTypeNames));
+        this.pageSize = pageSize;
+        this.pageLoader = pageLoader;
+        this.executor = executor;
+        this.timeout = timeout;
+        setPositionFromToken(continuationToken);
+        if (positionTypeIndex < this.atlasTypeNames.size()) {
+            this.nextPage = loadInBackground(positionTypeIndex, positionGuid);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while (!hasNextInPage() && nextPage != null) {
+            currentPage = waitFor(nextPage);
+            currentIndex = 0;
+            nextPage = loadFollowing(currentPage);
+            if (!hasNextInPage()) {
+                // Nothing (left) in this page, so the position moves to its end
+                setPositionToEndOf(currentPage);
+            }
+        }
+        return hasNextInPage();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EntityDetail next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Map.Entry<String, EntityDetail>> entries = currentPage.getEntries();
+        Map.Entry<String, EntityDetail> entry = entries.get(currentIndex++);
+        if (!hasNextInPage()) {
+            setPositionToEndOf(currentPage);
+        } else if (!entry.getKey().equals(entries.get(currentIndex).getKey())) {
+            // The position only moves past an Apache Atlas entity once every entity mapped from it has been returned
+            positionTypeIndex = currentPage.getTypeIndex();
+            positionGuid = entry.getKey();
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * Retrieve an opaque token representing the current position of the cursor, from which a new cursor can carry on
+     * with the entities that have not yet been returned by this one. Returns null once every entity has been returned.
+     *
+     * @return String
+     */
+    public String getContinuationToken() {
+        if (positionTypeIndex >= atlasTypeNames.size()) {
+            return null;
+        }
+        String position = atlasTypeNames.get(positionTypeIndex) + TOKEN_SEPARATOR + (positionGuid == null ? "" : positionGuid);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stop any background retrieval of the next page, as the cursor is no longer needed.
+     */
+    @Override
+    public void close() {
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+        currentPage = null;
+    }
+
+    /**
+     * Indicates whether there are any entities left to return from the current page.
+     *
+     * @return boolean
+     */
+    private boolean hasNextInPage() {
+        return currentPage != null && currentIndex < currentPage.getEntries().size();
+    }
+
+    /**
+     * Set the position of the cursor from the provided continuation token, or to the beginning if there is no token
+     * (or it is not one that applies to this cursor).
+     *
+     * @param continuationToken the token from which to carry on
+     */
+    private void setPositionFromToken(String continuationToken) {
+        positionTypeIndex = 0;
+        positionGuid = null;
+        if (continuationToken != null && !continuationToken.isEmpty()) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+                int separator = position.indexOf(TOKEN_SEPARATOR);
+                if (separator > 0) {
+                    int typeIndex = atlasTypeNames.indexOf(position.substring(0, separator));
+                    if (typeIndex >= 0) {
+                        positionTypeIndex = typeIndex;
+                        String guid = position.substring(separator + TOKEN_SEPARATOR.length());
+                        positionGuid = guid.isEmpty() ? null : guid;
+                        return;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Fall through to the warning below
+            }
+            log.warn("Unrecognized continuation token, starting from the beginning: {}", continuationToken);
+        }
+    }
+
+    /**
+     * Move the position of the cursor to the end of the provided page.
+     *
+     * @param page the page whose end the cursor has reached
+     */
+    private void setPositionToEndOf(Page page) {
+        if (page.isLastOfType()) {
+            positionTypeIndex = page.getTypeIndex() + 1;
+            positionGuid = null;
+        } else {
+            positionTypeIndex = page.getTypeIndex();
+            positionGuid = page.getLastGuid();
+        }
+    }
+
+    /**
+     * Start retrieving the page that follows the provided one, if there is any.
+     *
+     * @param page the page most recently retrieved
+     * @return {@code Future<Page>}, or null if there are no further pages
+     */
+    private Future<Page> loadFollowing(Page page) {
+        if (!page.isLastOfType()) {
+            return loadInBackground(page.getTypeIndex(), page.getLastGuid());
+        } else if (page.getTypeIndex() + 1 < atlasTypeNames.size()) {
+            return loadInBackground(page.getTypeIndex() + 1, null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Start retrieving a page of entities in the background.
+     *
+     * @param typeIndex the index of the Apache Atlas type for which to retrieve entities
+     * @param afterGuid the GUID after which to retrieve entities (or null to start from the first)
+     * @return {@code Future<Page>}
+     */
+    private Future<Page> loadInBackground(int typeIndex, String afterGuid) {
+        String atlasTypeName = atlasTypeNames.get(typeIndex);
+        return executor.submit(() -> {
+            LinkedHashMap<String, List<EntityDetail>> entities = pageLoader.load(atlasTypeName, afterGuid, pageSize);
+            String lastGuid = afterGuid;
+            List<Map.Entry<String, EntityDetail>> entries = new ArrayList<>();
+            for (Map.Entry<String, List<EntityDetail>> entity : entities.entrySet()) {
+                lastGuid = entity.getKey();
+                // Only those entities that could be mapped are returned by the cursor
+                if (entity.getValue() != null) {
+                    for (EntityDetail entityDetail : entity.getValue()) {
+                        if (entityDetail != null) {
+                            entries.add(new AbstractMap.SimpleImmutableEntry<>(entity.getKey(), entityDetail));
+                        }
+                    }
+                }
+            }
+            boolean lastOfType = entities.size() < pageSize;
+            return new Page(typeIndex, entries, lastGuid, lastOfType);
+        });
+    }
+
+    /**
+     * Wait for the provided page to be retrieved.
+     *
+     * @param page the page being retrieved
+     * @return Page
+     */
+    private Page waitFor(Future<Page> page) {
+        try {
+            return timeout > 0 ? page.get(timeout, TimeUnit.SECONDS) : page.get();
+        } catch (TimeoutException | CancellationException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            page.cancel(true);
+            ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.SEARCH_TIMEOUT;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                    repositoryName,
+                    String.valueOf(timeout));
+            throw new OMRSRuntimeException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction(),
+                    e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            ApacheAtlasOMRSErrorCode errorCode = ApacheAtlasOMRSErrorCode.CURSOR_PAGE_FAILURE;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(methodName,
+                    repositoryName);
+            throw new OMRSRuntimeException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction(),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * A single page of entities retrieved from Apache Atlas.
+     */
+    private static final class Page {
+
+        private final int typeIndex;
+        private final List<Map.Entry<String, EntityDetail>> entries;
+        private final String lastGuid;
+        private final boolean lastOfType;
+
+        Page(int typeIndex, List<Map.Entry<String, EntityDetail>> entries, String lastGuid, boolean lastOfType) {
+            this.typeIndex = typeIndex;
+            this.entries = entries;
+            this.lastGuid = lastGuid;
+            this.lastOfType = lastOfType;
+        }
+
+        int getTypeIndex() { return typeIndex; }
+        List<Map.Entry<String, EntityDetail>> getEntries() { return entries; }
+        String getLastGuid() { return lastGuid; }
+        boolean isLastOfType() { return lastOfType; }
+
+    }
+
+}
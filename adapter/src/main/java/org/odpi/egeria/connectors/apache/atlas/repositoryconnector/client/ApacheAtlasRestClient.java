@@ -0,0 +1,124 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
+import org.apache.atlas.AtlasClientV2;
+import org.apache.commons.configuration.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An Apache Atlas REST client whose HTTP transport can be tuned: the timeouts for establishing a connection and for
+ * reading a response, and whether requests and responses are compressed with gzip.
+ *
+ * The connections themselves are pooled (kept alive and re-used) by the JVM's HTTP handler, whose pool is shared by
+ * every HTTP client in the JVM: it is deliberately left alone here, to be tuned (if at all) for the JVM as a whole
+ * through the standard {@code http.keepAlive} and {@code http.maxConnections} system properties.
+ */
+public class ApacheAtlasRestClient extends AtlasClientV2 {
+
+    private static final Logger log = LoggerFactory.getLogger(ApacheAtlasRestClient.class);
+
+    // The underlying Jersey client is created while the superclass is being constructed, before any of this class's
+    // own fields are set, so the settings are handed over to it through the constructing thread
+    private static final ThreadLocal<Settings> SETTINGS_UNDER_CONSTRUCTION = new ThreadLocal<>();
+
+    private final Settings settings;
+
+    /**
+     * The tunable settings of the HTTP transport of a client.
+     */
+    public static final class Settings {
+
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final boolean compressResponses;
+        private final boolean compressRequests;
+
+        /**
+         * Define the settings for the HTTP transport of a client.
+         *
+         * @param connectTimeout the number of milliseconds to wait for a connection to be established (0 for no limit)
+         * @param readTimeout the number of milliseconds to wait for a response to be read (0 for no limit)
+         * @param compressResponses whether to ask for responses to be compressed with gzip
+         * @param compressRequests whether to compress the bodies of requests with gzip
+         */
+        public Settings(int connectTimeout, int readTimeout, boolean compressResponses, boolean compressRequests) {
+            this.connectTimeout = Math.max(connectTimeout, 0);
+            this.readTimeout = Math.max(readTimeout, 0);
+            this.compressResponses = compressResponses;
+            this.compressRequests = compressRequests;
+        }
+
+        public int getConnectTimeout() { return connectTimeout; }
+        public int getReadTimeout() { return readTimeout; }
+        public boolean isCompressResponses() { return compressResponses; }
+        public boolean isCompressRequests() { return compressRequests; }
+
+        @Override
+        public String toString() {
+            return "connectTimeout=" + connectTimeout + "ms, readTimeout=" + readTimeout + "ms, gzip responses="
+                    + compressResponses + ", gzip requests=" + compressRequests;
+        }
+
+    }
+
+    /**
+     * Construct a new client.
+     *
+     * @param baseUrls the base URLs of the Apache Atlas environment
+     * @param basicAuthUserNamePassword the user name and password with which to connect
+     * @param settings the settings for the HTTP transport of the client
+     */
+    private ApacheAtlasRestClient(String[] baseUrls, String[] basicAuthUserNamePassword, Settings settings) {
+        super(baseUrls, basicAuthUserNamePassword);
+        this.settings = settings;
+    }
+
+    /**
+     * Create a new client with the provided transport settings.
+     *
+     * @param baseUrls the base URLs of the Apache Atlas environment
+     * @param basicAuthUserNamePassword the user name and password with which to connect
+     * @param settings the settings for the HTTP transport of the client
+     * @return ApacheAtlasRestClient
+     */
+    public static ApacheAtlasRestClient create(String[] baseUrls, String[] basicAuthUserNamePassword, Settings settings) {
+        SETTINGS_UNDER_CONSTRUCTION.set(settings);
+        try {
+            return new ApacheAtlasRestClient(baseUrls, basicAuthUserNamePassword, settings);
+        } finally {
+            SETTINGS_UNDER_CONSTRUCTION.remove();
+        }
+    }
+
+    /**
+     * Retrieve the settings for the HTTP transport of this client.
+     *
+     * @return Settings
+     */
+    public Settings getSettings() { return settings; }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Client getClient(Configuration configuration, UserGroupInformation ugi, String doAsUser) {
+        Client client = super.getClient(configuration, ugi, doAsUser);
+        Settings toApply = SETTINGS_UNDER_CONSTRUCTION.get();
+        if (toApply != null) {
+            client.setConnectTimeout(toApply.getConnectTimeout());
+            client.setReadTimeout(toApply.getReadTimeout());
+            if (toApply.isCompressResponses() || toApply.isCompressRequests()) {
+                // Always asks for compressed responses (and decompresses them); only compresses requests if asked to
+                client.addFilter(new GZIPContentEncodingFilter(toApply.isCompressRequests()));
+            }
+            if (log.isDebugEnabled()) { log.debug("Created Apache Atlas REST client with: {}", toApply); }
+        }
+        return client;
+    }
+
+}
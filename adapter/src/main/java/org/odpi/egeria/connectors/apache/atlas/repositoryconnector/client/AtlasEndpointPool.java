@@ -0,0 +1,384 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import org.apache.atlas.AtlasClientV2;
+import org.apache.atlas.AtlasServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Apache Atlas endpoints to which the connector sends its requests: a single active endpoint, to which every write
+ * (and anything that must see the result of a write straight away) is sent, and any number of endpoints across which
+ * reads and searches are spread (which can include the active endpoint itself).
+ *
+ * Reads go to the endpoint with the fewest requests outstanding, or to each endpoint in turn. An endpoint whose calls
+ * fail a number of times in a row is ejected, receiving no more reads until a periodic health check finds it to be
+ * responding again.
+ *
+ * Every call to an endpoint (writes included) goes through that endpoint's own circuit breaker, so that the calls to an
+ * endpoint that appears to be unhealthy fail fast without holding up the calls to any other endpoint. Reads are sent
+ * only to endpoints whose breaker would let them through.
+ */
+public class AtlasEndpointPool {
+
+    private static final Logger log = LoggerFactory.getLogger(AtlasEndpointPool.class);
+
+    /**
+     * The ways in which reads can be spread across the endpoints.
+     */
+    public enum Balancing {
+        ROUND_ROBIN, LEAST_OUTSTANDING;
+
+        /**
+         * Retrieve the balancing with the provided name ("round-robin" or "least-outstanding"), or the provided
+         * default if there is no balancing by that name.
+         *
+         * @param name the name of the balancing
+         * @param defaultValue the balancing to use if the name is not recognized
+         * @return Balancing
+         */
+        public static Balancing fromName(String name, Balancing defaultValue) {
+            if (name != null) {
+                String normalized = name.trim().replace('-', '_').toUpperCase();
+                for (Balancing candidate : values()) {
+                    if (candidate.name().equals(normalized)) {
+                        return candidate;
+                    }
+                }
+                log.warn("Unknown balancing '{}', using default of {}.", name, defaultValue);
+            }
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A single call to Apache Atlas, made through the client of whichever endpoint is chosen for it.
+     *
+     * @param <T> the type of the result of the call
+     */
+    @FunctionalInterface
+    public interface ClientCall<T> {
+
+        /**
+         * Make the call.
+         *
+         * @param client the client through which to make the call
+         * @return T the result of the call
+         * @throws AtlasServiceException if the call fails
+         */
+        T call(AtlasClientV2 client) throws AtlasServiceException;
+
+    }
+
+    /**
+     * A single Apache Atlas endpoint, with the clients through which to call it and the circuit breaker through which
+     * every call to it is made.
+     */
+    public static final class Endpoint {
+
+        private final String url;
+        private final AtlasClientV2 client;
+        private final AtlasClientV2 searchClient;
+        private final CircuitBreaker circuitBreaker;
+
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+        private volatile boolean ejected = false;
+        private final AtomicLong requests = new AtomicLong(0);
+        private final AtomicLong failures = new AtomicLong(0);
+        private final AtomicLong ejections = new AtomicLong(0);
+
+        /**
+         * Define a new endpoint.
+         *
+         * @param url the base URL of the endpoint
+         * @param client the client through which to make most calls to the endpoint
+         * @param searchClient the client through which to run searches against the endpoint
+         * @param circuitBreaker the breaker through which to make every call to the endpoint
+         */
+        public Endpoint(String url, AtlasClientV2 client, AtlasClientV2 searchClient, CircuitBreaker circuitBreaker) {
+            this.url = url;
+            this.client = client;
+            this.searchClient = searchClient;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        public String getUrl() { return url; }
+        public AtlasClientV2 getClient() { return client; }
+        public AtlasClientV2 getSearchClient() { return searchClient; }
+        public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+        public int getOutstandingCount() { return outstanding.get(); }
+        public boolean isEjected() { return ejected; }
+        public long getRequestCount() { return requests.get(); }
+        public long getFailureCount() { return failures.get(); }
+        public long getEjectionCount() { return ejections.get(); }
+
+        @Override
+        public String toString() { return url; }
+
+    }
+
+    private final Endpoint active;
+    private final List<Endpoint> readEndpoints;
+    private final Balancing balancing;
+    private final int ejectThreshold;
+    private final AtomicInteger next = new AtomicInteger(0);
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * Create a new pool of endpoints.
+     *
+     * @param active the active endpoint, to which writes are sent
+     * @param readEndpoints the endpoints across which to spread reads (if empty, reads are sent to the active endpoint)
+     * @param balancing how to spread reads across the endpoints
+     * @param ejectThreshold the number of calls to an endpoint in a row that must fail for it to be ejected (0 or less
+     *                       to never eject an endpoint)
+     */
+    public AtlasEndpointPool(Endpoint active, List<Endpoint> readEndpoints, Balancing balancing, int ejectThreshold) {
+        this.active = active;
+        this.readEndpoints = readEndpoints == null || readEndpoints.isEmpty()
+                ? Collections.singletonList(active)
+                : Collections.unmodifiableList(new ArrayList<>(readEndpoints));
+        this.balancing = balancing == null ? Balancing.LEAST_OUTSTANDING : balancing;
+        this.ejectThreshold = ejectThreshold;
+    }
+
+    /**
+     * Retrieve a call to be made to the active endpoint: for writes, and for reads that must see the result of
+     * previous writes straight away.
+     *
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return {@code ResilientInvoker.AtlasCall<T>}
+     */
+    public <T> ResilientInvoker.AtlasCall<T> onActive(ClientCall<T> call) {
+        return () -> invoke(active, active.getClient(), call);
+    }
+
+    /**
+     * Retrieve a read to be made to whichever endpoint is chosen for it (anew for each attempt, so that a retry can go
+     * to a different endpoint than the attempt that failed).
+     *
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return {@code ResilientInvoker.AtlasCall<T>}
+     */
+    public <T> ResilientInvoker.AtlasCall<T> forRead(ClientCall<T> call) {
+        return () -> {
+            Endpoint endpoint = select();
+            return invoke(endpoint, endpoint.getClient(), call);
+        };
+    }
+
+    /**
+     * Retrieve a search to be run against whichever endpoint is chosen for it (anew for each attempt).
+     *
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return {@code ResilientInvoker.AtlasCall<T>}
+     */
+    public <T> ResilientInvoker.AtlasCall<T> forSearch(ClientCall<T> call) {
+        return () -> {
+            Endpoint endpoint = select();
+            return invoke(endpoint, endpoint.getSearchClient(), call);
+        };
+    }
+
+    /**
+     * Choose the endpoint to which to send a read: amongst those that are neither ejected nor behind an open circuit
+     * breaker, the next in turn or the one with the fewest requests outstanding (starting from the next in turn, so
+     * that ties are spread evenly). If no endpoint is available, the read is sent to the active endpoint regardless.
+     *
+     * @return Endpoint
+     */
+    public Endpoint select() {
+        int count = readEndpoints.size();
+        if (count == 1) {
+            return readEndpoints.get(0);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        Endpoint chosen = null;
+        for (int i = 0; i < count; i++) {
+            Endpoint candidate = readEndpoints.get((start + i) % count);
+            if (!candidate.isEjected() && candidate.getCircuitBreaker().isAvailable()) {
+                if (balancing == Balancing.ROUND_ROBIN) {
+                    return candidate;
+                } else if (chosen == null || candidate.getOutstandingCount() < chosen.getOutstandingCount()) {
+                    chosen = candidate;
+                }
+            }
+        }
+        return chosen == null ? active : chosen;
+    }
+
+    /**
+     * Make a call to the provided endpoint through its circuit breaker, keeping track of the requests outstanding
+     * against it and of whether it is failing.
+     *
+     * @param endpoint the endpoint to call
+     * @param client the client (of that endpoint) through which to make the call
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return T the result of the call
+     * @throws AtlasServiceException if the call fails, or the endpoint's circuit breaker is open
+     */
+    private <T> T invoke(Endpoint endpoint, AtlasClientV2 client, ClientCall<T> call) throws AtlasServiceException {
+        CircuitBreaker breaker = endpoint.getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            throw new AtlasServiceException(new IllegalStateException("Apache Atlas endpoint " + endpoint + " appears unhealthy (circuit breaker open), not calling it."));
+        }
+        endpoint.requests.incrementAndGet();
+        endpoint.outstanding.incrementAndGet();
+        try {
+            T result = call.call(client);
+            breaker.recordSuccess();
+            recordSuccess(endpoint);
+            return result;
+        } catch (AtlasServiceException e) {
+            if (ResilientInvoker.isTransient(e)) {
+                breaker.recordFailure();
+                recordFailure(endpoint);
+            } else {
+                // The endpoint answered, so is healthy: the failure is down to the call itself
+                breaker.recordSuccess();
+                recordSuccess(endpoint);
+            }
+            throw e;
+        } catch (ClientHandlerException e) {
+            breaker.recordFailure();
+            recordFailure(endpoint);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            // Not down to the health of the endpoint (for example, a response that could not be mapped), but any trial
+            // call must still be resolved, or the breaker would reject every call from then on
+            breaker.recordSuccess();
+            throw e;
+        } finally {
+            endpoint.outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Record that a call to the provided endpoint succeeded (or was answered), re-admitting it if it was ejected.
+     *
+     * @param endpoint the endpoint
+     */
+    private void recordSuccess(Endpoint endpoint) {
+        endpoint.consecutiveFailures.set(0);
+        if (endpoint.ejected) {
+            if (log.isInfoEnabled()) { log.info("Apache Atlas endpoint {} responding again: re-admitting it for reads.", endpoint); }
+            endpoint.ejected = false;
+        }
+    }
+
+    /**
+     * Record that a call to the provided endpoint failed, ejecting it once enough calls in a row have failed.
+     *
+     * @param endpoint the endpoint
+     */
+    private void recordFailure(Endpoint endpoint) {
+        endpoint.failures.incrementAndGet();
+        int failures = endpoint.consecutiveFailures.incrementAndGet();
+        if (ejectThreshold > 0 && failures >= ejectThreshold) {
+            eject(endpoint, failures + " failed calls in a row");
+        }
+    }
+
+    /**
+     * Eject the provided endpoint, so that no more reads are sent to it until it is found to be responding again.
+     *
+     * @param endpoint the endpoint
+     * @param reason the reason for ejecting it, for logging
+     */
+    private void eject(Endpoint endpoint, String reason) {
+        if (!endpoint.ejected && readEndpoints.size() > 1) {
+            endpoint.ejected = true;
+            endpoint.ejections.incrementAndGet();
+            log.warn("Ejecting Apache Atlas endpoint {} after {}: no longer sending it reads.", endpoint, reason);
+        }
+    }
+
+    /**
+     * Start checking the health of every endpoint periodically, ejecting those that do not respond and re-admitting
+     * those that do. There is nothing to check if reads are only ever sent to a single endpoint.
+     *
+     * @param intervalMillis the number of milliseconds between checks (0 or less to never check)
+     */
+    public synchronized void startHealthChecks(long intervalMillis) {
+        if (intervalMillis > 0 && readEndpoints.size() > 1 && healthChecker == null) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ApacheAtlasHealthCheck");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Check the health of every endpoint once, by asking each for its status.
+     */
+    public void checkHealth() {
+        Set<Endpoint> toCheck = new LinkedHashSet<>(readEndpoints);
+        toCheck.add(active);
+        for (Endpoint endpoint : toCheck) {
+            try {
+                String status = endpoint.getClient().getAdminStatus();
+                if (log.isDebugEnabled()) { log.debug("Apache Atlas endpoint {} has status: {}", endpoint, status); }
+                recordSuccess(endpoint);
+            } catch (AtlasServiceException | ClientHandlerException e) {
+                if (log.isDebugEnabled()) { log.debug("Health check of Apache Atlas endpoint {} failed.", endpoint, e); }
+                endpoint.failures.incrementAndGet();
+                eject(endpoint, "a failed health check");
+            } catch (RuntimeException e) {
+                // Never let an unexpected failure stop any further health checks from being scheduled
+                log.error("Unexpected failure checking the health of Apache Atlas endpoint {}.", endpoint, e);
+            }
+        }
+    }
+
+    /**
+     * Stop checking the health of the endpoints.
+     */
+    public synchronized void shutdown() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+
+    /**
+     * Retrieve the active endpoint, to which writes are sent.
+     *
+     * @return Endpoint
+     */
+    public Endpoint getActive() { return active; }
+
+    /**
+     * Retrieve the endpoints across which reads are spread.
+     *
+     * @return {@code List<Endpoint>}
+     */
+    public List<Endpoint> getReadEndpoints() { return readEndpoints; }
+
+    /**
+     * Retrieve how reads are spread across the endpoints.
+     *
+     * @return Balancing
+     */
+    public Balancing getBalancing() { return balancing; }
+
+}
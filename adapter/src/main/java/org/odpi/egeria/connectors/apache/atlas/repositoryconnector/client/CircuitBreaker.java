@@ -0,0 +1,158 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops calls being made to an Apache Atlas endpoint while it appears to be unhealthy, so that callers fail fast rather
+ * than waiting on (and adding to the load of) an environment that is struggling.
+ *
+ * The breaker starts out closed, letting every call through. Once a number of calls in a row have failed, it opens,
+ * rejecting every call for a period of time. After that period it becomes half-open, letting a single trial call
+ * through: if the trial succeeds the breaker closes again, and if it fails the breaker opens for another period.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * The states through which the breaker moves.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean trialInFlight = false;
+    private long tripCount = 0;
+    private long rejectedCount = 0;
+
+    /**
+     * Create a new (closed) breaker.
+     *
+     * @param name the name of the breaker, for logging
+     * @param failureThreshold the number of calls in a row that must fail for the breaker to open (0 or less to never
+     *                         open the breaker)
+     * @param openMillis the number of milliseconds for which the breaker stays open before letting a trial call through
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = Math.max(openMillis, 0);
+    }
+
+    /**
+     * Indicates whether a call may be made now (true) or must be rejected (false). A call that is allowed must be
+     * followed by recording its success or failure.
+     *
+     * @return boolean
+     */
+    public synchronized boolean allowRequest() {
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        switch (state) {
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt >= openMillis) {
+                    if (log.isInfoEnabled()) { log.info("Circuit breaker {} half-open: letting a trial call through.", name); }
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                }
+                rejectedCount++;
+                return false;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    rejectedCount++;
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Indicates whether a call would be allowed now, without letting it through: so that a caller can choose another
+     * endpoint than one whose breaker is open.
+     *
+     * @return boolean
+     */
+    public synchronized boolean isAvailable() {
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        switch (state) {
+            case OPEN:
+                return System.currentTimeMillis() - openedAt >= openMillis;
+            case HALF_OPEN:
+                return !trialInFlight;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Record that a call succeeded (including a call that Apache Atlas answered with an error of the caller's own
+     * making, as that still shows it to be healthy).
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            if (log.isInfoEnabled()) { log.info("Circuit breaker {} closed: calls succeeding again.", name); }
+            state = State.CLOSED;
+        }
+    }
+
+    /**
+     * Record that a call failed.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (failureThreshold > 0
+                && (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold))) {
+            log.warn("Circuit breaker {} open after {} failed calls in a row: rejecting calls for {}ms.", name, consecutiveFailures, openMillis);
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            tripCount++;
+        }
+    }
+
+    /**
+     * Retrieve the current state of the breaker.
+     *
+     * @return State
+     */
+    public synchronized State getState() { return state; }
+
+    /**
+     * Retrieve the number of calls in a row that have failed.
+     *
+     * @return int
+     */
+    public synchronized int getConsecutiveFailures() { return consecutiveFailures; }
+
+    /**
+     * Retrieve the number of times the breaker has opened.
+     *
+     * @return long
+     */
+    public synchronized long getTripCount() { return tripCount; }
+
+    /**
+     * Retrieve the number of calls rejected because the breaker was open.
+     *
+     * @return long
+     */
+    public synchronized long getRejectedCount() { return rejectedCount; }
+
+}
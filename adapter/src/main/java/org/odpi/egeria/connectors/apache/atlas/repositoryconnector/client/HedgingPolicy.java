@@ -0,0 +1,333 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.apache.atlas.AtlasServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedges reads against Apache Atlas: when a read has not returned within the time that most reads take (a percentile
+ * of the latencies of recent reads), a duplicate of it is made, and whichever returns first is used. This keeps an
+ * occasional slow response (for example during a garbage collection pause in Apache Atlas) from holding up the
+ * caller, at the cost of a few extra reads.
+ *
+ * Hedges are limited to a percentage of all reads, so that they cannot multiply the load on Apache Atlas when it is
+ * slow across the board, and each hedge must also fit within the request budget of the read it duplicates (without
+ * waiting for room). No read is hedged until enough latencies have been recorded to know the percentile.
+ *
+ * A read that cannot be hedged (because the percentile is not yet known, the budget is spent, or every thread is
+ * already busy) is simply made on the caller's own thread. Only a read that could be hedged is handed to one of a
+ * bounded number of threads, so that the caller is free to start the hedge once the delay has passed.
+ */
+public class HedgingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingPolicy.class);
+
+    private static final int SAMPLE_SIZE = 512;
+    private static final int MIN_SAMPLES = 64;
+    private static final int RECALCULATE_EVERY = 64;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budgetPercent;
+    private final ExecutorService executor;
+
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private final AtomicLong sampleCount = new AtomicLong(0);
+    private volatile long delayNanos = -1;
+
+    private final AtomicLong reads = new AtomicLong(0);
+    private final AtomicLong hedges = new AtomicLong(0);
+    private final AtomicLong hedgeWins = new AtomicLong(0);
+
+    /**
+     * Create a new hedging policy.
+     *
+     * @param enabled whether to hedge reads at all
+     * @param percentile the percentile (between 0 and 100) of recent read latencies after which to hedge a read
+     * @param minDelayMillis the minimum number of milliseconds to wait before hedging a read, however fast reads are
+     * @param budgetPercent the maximum number of hedges to make, as a percentage of all reads
+     * @param maxThreads the maximum number of reads and hedges to have in flight on other threads at once
+     */
+    public HedgingPolicy(boolean enabled, double percentile, long minDelayMillis, double budgetPercent, int maxThreads) {
+        this.enabled = enabled && budgetPercent > 0 && maxThreads > 0;
+        this.percentile = Math.min(Math.max(percentile, 0), 100);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(minDelayMillis, 0));
+        this.budgetPercent = budgetPercent;
+        if (this.enabled) {
+            // No queue: a read or hedge for which there is no thread free is made on the caller's thread, or not at all
+            AtomicInteger threadCount = new AtomicInteger(0);
+            this.executor = new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ApacheAtlasHedge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Make the provided read, hedging it with a duplicate if it has not returned in time. The first of them to return
+     * successfully is used; the read only fails if every attempt made fails. The read should be a single attempt, not
+     * one that retries itself, so that a hedge never starts a second sequence of retries.
+     *
+     * @param read the read to make (which should choose anew on each call where to send it, so that a hedge can go to
+     *             a different endpoint or connection than the read it duplicates)
+     * @param budget the budget within which the read is made, and within which any hedge must also fit (or null if
+     *               neither is limited)
+     * @param <T> the type of the result of the read
+     * @return T the result of the read
+     * @throws AtlasServiceException if the read (and its hedge, if any) fails
+     */
+    public <T> T read(ResilientInvoker.AtlasCall<T> read, RequestBudget budget) throws AtlasServiceException {
+        if (!enabled) {
+            return read.call();
+        }
+        reads.incrementAndGet();
+        long delay = delayNanos;
+        if (delay < 0 || !withinBudget()) {
+            return timed(read);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(1);
+        AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+        try {
+            executor.execute(() -> attempt(read, result, remaining, lastFailure, false));
+        } catch (RejectedExecutionException e) {
+            return timed(read);
+        }
+        try {
+            try {
+                return result.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (hedge(read, budget, result, remaining, lastFailure) && log.isDebugEnabled()) {
+                    log.debug("Read not returned after {}ms, hedged it.", TimeUnit.NANOSECONDS.toMillis(delay));
+                }
+            }
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AtlasServiceException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AtlasServiceException) {
+                throw (AtlasServiceException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AtlasServiceException(e);
+        }
+    }
+
+    /**
+     * Start a hedge of a read that has not returned in time, if one can be made: within the budget for hedges, within
+     * the request budget (without waiting), with a thread free on which to make it, and only while the read it
+     * duplicates is still outstanding.
+     *
+     * @param read the read to make
+     * @param budget the request budget within which to make the hedge (or null if not limited)
+     * @param result the shared result of the read
+     * @param remaining the number of attempts still outstanding
+     * @param lastFailure the failure of the most recent attempt to fail
+     * @param <T> the type of the result of the read
+     * @return boolean true if a hedge was started, false otherwise
+     */
+    private <T> boolean hedge(ResilientInvoker.AtlasCall<T> read,
+                              RequestBudget budget,
+                              CompletableFuture<T> result,
+                              AtomicInteger remaining,
+                              AtomicReference<Throwable> lastFailure) {
+        if (!reserveHedge()) {
+            return false;
+        }
+        boolean hedged = false;
+        if (budget == null || budget.tryAcquire()) {
+            if (remaining.getAndIncrement() > 0) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            attempt(read, result, remaining, lastFailure, true);
+                        } finally {
+                            if (budget != null) {
+                                budget.release();
+                            }
+                        }
+                    });
+                    hedged = true;
+                } catch (RejectedExecutionException e) {
+                    // No thread free for the hedge: wait on the read alone (unless it has already failed)
+                    if (remaining.decrementAndGet() == 0) {
+                        result.completeExceptionally(lastFailure.get());
+                    }
+                }
+            }
+            if (!hedged && budget != null) {
+                budget.release();
+            }
+        }
+        if (!hedged) {
+            hedges.decrementAndGet();
+        }
+        return hedged;
+    }
+
+    /**
+     * Make a read on the caller's thread, without hedging it, recording its latency if it succeeds.
+     *
+     * @param read the read to make
+     * @param <T> the type of the result of the read
+     * @return T the result of the read
+     * @throws AtlasServiceException if the read fails
+     */
+    private <T> T timed(ResilientInvoker.AtlasCall<T> read) throws AtlasServiceException {
+        long start = System.nanoTime();
+        T value = read.call();
+        recordLatency(System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Make one attempt at a read, completing the shared result with it if it is the first to succeed, or with its
+     * failure if it is the last attempt to fail.
+     *
+     * @param read the read to make
+     * @param result the shared result of the read
+     * @param remaining the number of attempts still outstanding
+     * @param lastFailure the failure of the most recent attempt to fail
+     * @param hedge whether this attempt is a hedge
+     * @param <T> the type of the result of the read
+     */
+    private <T> void attempt(ResilientInvoker.AtlasCall<T> read,
+                             CompletableFuture<T> result,
+                             AtomicInteger remaining,
+                             AtomicReference<Throwable> lastFailure,
+                             boolean hedge) {
+        long start = System.nanoTime();
+        try {
+            T value = read.call();
+            recordLatency(System.nanoTime() - start);
+            if (result.complete(value) && hedge) {
+                hedgeWins.incrementAndGet();
+            }
+        } catch (AtlasServiceException | RuntimeException | Error e) {
+            lastFailure.set(e);
+            if (remaining.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Indicates whether another hedge can be made without exceeding the budget for hedges.
+     *
+     * @return boolean
+     */
+    private boolean withinBudget() {
+        return hedges.get() < reads.get() * budgetPercent / 100.0;
+    }
+
+    /**
+     * Reserve a hedge within the budget for hedges, if there is room for another: atomically, so that concurrent
+     * callers cannot together exceed the budget.
+     *
+     * @return boolean true if a hedge was reserved, false if the budget is spent
+     */
+    private boolean reserveHedge() {
+        long made;
+        do {
+            made = hedges.get();
+            if (made >= reads.get() * budgetPercent / 100.0) {
+                return false;
+            }
+        } while (!hedges.compareAndSet(made, made + 1));
+        return true;
+    }
+
+    /**
+     * Record the latency of a successful read, periodically recalculating the delay after which to hedge reads.
+     *
+     * @param nanos the latency of the read, in nanoseconds
+     */
+    private void recordLatency(long nanos) {
+        long count = sampleCount.getAndIncrement();
+        synchronized (samples) {
+            samples[(int) (count % SAMPLE_SIZE)] = nanos;
+        }
+        long recorded = count + 1;
+        if (recorded >= MIN_SAMPLES && recorded % RECALCULATE_EVERY == 0) {
+            long[] sorted;
+            synchronized (samples) {
+                sorted = Arrays.copyOf(samples, (int) Math.min(recorded, SAMPLE_SIZE));
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.min(Math.max(index, 0), sorted.length - 1)]);
+        }
+    }
+
+    /**
+     * Stop any further hedges from being made.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Indicates whether reads are hedged at all.
+     *
+     * @return boolean
+     */
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Retrieve the number of milliseconds after which a read is currently hedged, or -1 if reads are not yet hedged.
+     *
+     * @return long
+     */
+    public long getDelayMillis() {
+        long delay = delayNanos;
+        return delay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delay);
+    }
+
+    /**
+     * Retrieve the number of reads made through the policy.
+     *
+     * @return long
+     */
+    public long getReadCount() { return reads.get(); }
+
+    /**
+     * Retrieve the number of hedges made.
+     *
+     * @return long
+     */
+    public long getHedgeCount() { return hedges.get(); }
+
+    /**
+     * Retrieve the number of hedges that returned before the read they duplicated.
+     *
+     * @return long
+     */
+    public long getHedgeWinCount() { return hedgeWins.get(); }
+
+}
@@ -0,0 +1,161 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the load that one kind of request (for example searches) can put on Apache Atlas: both the rate at which
+ * such requests are started (a token bucket, allowing short bursts) and the number of them in flight at any one time.
+ * Requests wait their turn in the order in which they arrived, so that no caller is starved by others.
+ */
+public class RequestBudget {
+
+    private final String name;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    private final Object rateMonitor = new Object();
+    private long nextStartAt = 0;
+
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong delayed = new AtomicLong(0);
+
+    /**
+     * Create a new budget.
+     *
+     * @param name the name of the budget
+     * @param requestsPerSecond the maximum sustained rate at which to start requests (0 or less for no limit)
+     * @param burst the number of requests that may be started at once, after a quiet period, above the sustained rate
+     * @param maxInFlight the maximum number of requests in flight at any one time (0 or less for no limit)
+     */
+    public RequestBudget(String name, int requestsPerSecond, int burst, int maxInFlight) {
+        this.name = name;
+        this.intervalNanos = requestsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / requestsPerSecond : 0;
+        this.burstNanos = intervalNanos * Math.max(burst - 1, 0);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+    }
+
+    /**
+     * Wait until a request may be started within the budget. Every successful acquisition must be followed by a
+     * release once the request completes.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        requests.incrementAndGet();
+        if (intervalNanos > 0) {
+            long waitNanos;
+            synchronized (rateMonitor) {
+                // Each request reserves the next start time in turn, so requests are started in the order they arrive
+                long now = System.nanoTime();
+                long earliest = now - burstNanos;
+                if (nextStartAt - earliest < 0) {
+                    nextStartAt = earliest;
+                }
+                long startAt = nextStartAt;
+                nextStartAt += intervalNanos;
+                waitNanos = startAt - now;
+            }
+            if (waitNanos > 0) {
+                delayed.incrementAndGet();
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+        if (inFlight != null) {
+            // (The untimed tryAcquire would take a free permit ahead of requests already waiting for one)
+            if (!inFlight.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                delayed.incrementAndGet();
+                inFlight.acquire();
+            }
+        }
+    }
+
+    /**
+     * Start a request within the budget only if it can be started straight away, without waiting (and without jumping
+     * ahead of any request already waiting). Every successful acquisition must be followed by a release once the
+     * request completes.
+     *
+     * @return boolean true if the request may be started, false otherwise
+     */
+    public boolean tryAcquire() {
+        try {
+            if (inFlight != null && !inFlight.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (intervalNanos > 0) {
+            synchronized (rateMonitor) {
+                long now = System.nanoTime();
+                long earliest = now - burstNanos;
+                if (nextStartAt - earliest < 0) {
+                    nextStartAt = earliest;
+                }
+                if (nextStartAt - now > 0) {
+                    release();
+                    return false;
+                }
+                nextStartAt += intervalNanos;
+            }
+        }
+        requests.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record that a request started within the budget has completed.
+     */
+    public void release() {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Retrieve the name of the budget.
+     *
+     * @return String
+     */
+    public String getName() { return name; }
+
+    /**
+     * Retrieve the number of requests currently in flight within the budget.
+     *
+     * @return int
+     */
+    public int getInFlightCount() {
+        return inFlight == null ? 0 : maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Retrieve the (approximate) number of requests currently waiting for room to be in flight.
+     *
+     * @return int
+     */
+    public int getWaitingCount() {
+        return inFlight == null ? 0 : inFlight.getQueueLength();
+    }
+
+    /**
+     * Retrieve the number of requests made within the budget.
+     *
+     * @return long
+     */
+    public long getRequestCount() { return requests.get(); }
+
+    /**
+     * Retrieve the number of requests that had to wait (for the rate limit, or for room to be in flight).
+     *
+     * @return long
+     */
+    public long getDelayedCount() { return delayed.get(); }
+
+}
@@ -0,0 +1,223 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import org.apache.atlas.AtlasServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes calls to Apache Atlas, retrying those that are safe to repeat (reads) when they fail for a reason that may well
+ * be transient: a server-side error, or a failure to connect or to read a response.
+ * Retries wait for an exponentially-increasing, randomly-jittered time, so that many callers retrying at once do not
+ * all hit Apache Atlas again at the same moment. Errors of the caller's own making (such as asking for an instance
+ * that does not exist) are never retried.
+ */
+public class ResilientInvoker {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientInvoker.class);
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final AtomicLong calls = new AtomicLong(0);
+    private final AtomicLong retries = new AtomicLong(0);
+    private final AtomicLong failures = new AtomicLong(0);
+
+    /**
+     * A single call to Apache Atlas.
+     *
+     * @param <T> the type of the result of the call
+     */
+    @FunctionalInterface
+    public interface AtlasCall<T> {
+
+        /**
+         * Make the call.
+         *
+         * @return T the result of the call
+         * @throws AtlasServiceException if the call fails
+         */
+        T call() throws AtlasServiceException;
+
+    }
+
+    /**
+     * Create a new invoker.
+     *
+     * @param maxAttempts the maximum number of times to attempt a read (including the first attempt)
+     * @param baseBackoffMillis the number of milliseconds on which to base the wait before each retry
+     * @param maxBackoffMillis the maximum number of milliseconds to wait before any single retry
+     */
+    public ResilientInvoker(int maxAttempts, long baseBackoffMillis, long maxBackoffMillis) {
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.baseBackoffMillis = Math.max(baseBackoffMillis, 0);
+        this.maxBackoffMillis = Math.max(maxBackoffMillis, this.baseBackoffMillis);
+    }
+
+    /**
+     * Make a call that is safe to repeat, retrying it if it fails for a reason that may be transient.
+     *
+     * @param operation a description of the call, for logging
+     * @param budget the budget within which to make each attempt (or null to make them without limit)
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return T the result of the call
+     * @throws AtlasServiceException if the call fails (on its last attempt)
+     */
+    public <T> T read(String operation, RequestBudget budget, AtlasCall<T> call) throws AtlasServiceException {
+        return invoke(operation, budget, call, maxAttempts, null);
+    }
+
+    /**
+     * Make a call that is safe to repeat, hedging each attempt at it (rather than the whole sequence of retries) and
+     * retrying it if it fails for a reason that may be transient.
+     *
+     * @param operation a description of the call, for logging
+     * @param budget the budget within which to make each attempt (or null to make them without limit)
+     * @param call the call to make
+     * @param hedging the policy by which to hedge each attempt
+     * @param <T> the type of the result of the call
+     * @return T the result of the call
+     * @throws AtlasServiceException if the call fails (on its last attempt)
+     */
+    public <T> T read(String operation, RequestBudget budget, AtlasCall<T> call, HedgingPolicy hedging) throws AtlasServiceException {
+        return invoke(operation, budget, call, maxAttempts, hedging);
+    }
+
+    /**
+     * Make a call that is not safe to repeat, attempting it only once.
+     *
+     * @param operation a description of the call, for logging
+     * @param budget the budget within which to make the attempt (or null to make it without limit)
+     * @param call the call to make
+     * @param <T> the type of the result of the call
+     * @return T the result of the call
+     * @throws AtlasServiceException if the call fails
+     */
+    public <T> T write(String operation, RequestBudget budget, AtlasCall<T> call) throws AtlasServiceException {
+        return invoke(operation, budget, call, 1, null);
+    }
+
+    /**
+     * Make a call, attempting it up to the provided number of times.
+     *
+     * @param operation a description of the call, for logging
+     * @param budget the budget within which to make each attempt (or null to make them without limit)
+     * @param call the call to make
+     * @param attempts the maximum number of times to attempt the call
+     * @param hedging the policy by which to hedge each attempt (or null to not hedge them)
+     * @param <T> the type of the result of the call
+     * @return T the result of the call
+     * @throws AtlasServiceException if the call fails (on its last attempt)
+     */
+    private <T> T invoke(String operation, RequestBudget budget, AtlasCall<T> call, int attempts, HedgingPolicy hedging) throws AtlasServiceException {
+        calls.incrementAndGet();
+        AtlasServiceException lastFailure = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            // Every attempt (retries included) counts against the budget, as each one adds to the load on Apache Atlas
+            if (budget != null) {
+                try {
+                    budget.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AtlasServiceException(e);
+                }
+            }
+            try {
+                return hedging == null ? call.call() : hedging.read(call, budget);
+            } catch (AtlasServiceException e) {
+                if (!isTransient(e)) {
+                    // Apache Atlas answered (or the call was never made): the failure is down to the call itself
+                    throw e;
+                }
+                lastFailure = e;
+            } catch (ClientHandlerException e) {
+                // Unable to connect to Apache Atlas, or to read its response
+                lastFailure = new AtlasServiceException(e);
+            } finally {
+                if (budget != null) {
+                    budget.release();
+                }
+            }
+            if (attempt < attempts) {
+                long backoff = getBackoff(attempt);
+                retries.incrementAndGet();
+                if (log.isDebugEnabled()) { log.debug("Attempt {} of {} failed, retrying in {}ms: {}", attempt, attempts, backoff, operation, lastFailure); }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        failures.incrementAndGet();
+        throw lastFailure;
+    }
+
+    /**
+     * Indicates whether the provided failure may be transient (true), or will recur however often the call is made
+     * (false): only a server-side error response, or a failure to connect to Apache Atlas or to read its response, may
+     * be transient. (A 429 response cannot be told apart here, as the client has no status for it.)
+     *
+     * @param e the failure
+     * @return boolean
+     */
+    static boolean isTransient(AtlasServiceException e) {
+        ClientResponse.Status status = e.getStatus();
+        if (status != null) {
+            return status.getStatusCode() >= 500;
+        }
+        // No status means no (recognizable) response was received: transient only if that was down to I/O
+        for (Throwable cause = e.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof ClientHandlerException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieve the number of milliseconds to wait before retrying after the provided attempt: a random time up to an
+     * exponentially-increasing limit ("full jitter").
+     *
+     * @param attempt the number of the attempt that failed (starting from 1)
+     * @return long
+     */
+    private long getBackoff(int attempt) {
+        long limit = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 30));
+        return limit <= 0 ? 0 : ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+
+    /**
+     * Retrieve the number of calls made (not counting retries).
+     *
+     * @return long
+     */
+    public long getCallCount() { return calls.get(); }
+
+    /**
+     * Retrieve the number of retries made.
+     *
+     * @return long
+     */
+    public long getRetryCount() { return retries.get(); }
+
+    /**
+     * Retrieve the number of calls that failed (after any retries), not counting those rejected by an endpoint's
+     * circuit breaker or failed by the caller's own error.
+     *
+     * @return long
+     */
+    public long getFailureCount() { return failures.get(); }
+
+}
@@ -0,0 +1,88 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls, so that however many callers ask for the same key at the same time, only one
+ * call is actually made and every caller shares its result. Nothing is kept once the call completes: a caller that
+ * arrives after that makes a new call, so the result shared is never older than the call that is in flight.
+ *
+ * @param <K> the type of the keys that identify identical calls
+ * @param <V> the type of the results of the calls
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong calls = new AtomicLong(0);
+    private final AtomicLong shared = new AtomicLong(0);
+
+    /**
+     * Make the provided call for the provided key, unless an identical call is already in flight, in which case wait
+     * for and share its result instead. Any exception thrown by the call is thrown to every caller sharing it.
+     *
+     * @param key the key identifying identical calls
+     * @param call the call to make
+     * @return V the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        if (key == null) {
+            calls.incrementAndGet();
+            return call.get();
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        calls.incrementAndGet();
+        try {
+            V result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Retrieve the number of calls actually made.
+     *
+     * @return long
+     */
+    public long getCallCount() { return calls.get(); }
+
+    /**
+     * Retrieve the number of callers that shared the result of a call already in flight, rather than making their own.
+     *
+     * @return long
+     */
+    public long getSharedCount() { return shared.get(); }
+
+    /**
+     * Retrieve the number of calls currently in flight.
+     *
+     * @return int
+     */
+    public int getInFlightCount() { return inFlight.size(); }
+
+}
@@ -6,6 +6,7 @@ import org.apache.atlas.model.instance.*;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSMetadataCollection;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.ApacheAtlasOMRSRepositoryConnector;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores.AttributeTypeDefStore;
+import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores.BoundedCache;
 import org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores.TypeDefStore;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.SequencingOrder;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.*;
@@ -67,9 +68,18 @@ public class EntityMappingAtlas2OMRS {
      * @throws RepositoryErrorException when unable to retrieve the EntitySummary
      */
     public EntitySummary getEntitySummary() throws RepositoryErrorException {
+        BoundedCache<String, EntitySummary> cache = atlasRepositoryConnector.getMappedEntitySummaryCache();
+        String cacheKey = getMappedCacheKey();
+        EntitySummary cached = cache.get(cacheKey);
+        if (isCurrent(cached)) {
+            return new EntitySummary(cached);
+        } else if (cached != null) {
+            cache.remove(cacheKey);
+        }
         EntitySummary summary = getSkeletonEntitySummary(prefix);
         setModAndVersionDetails(summary);
         addClassifications(summary);
+        cache.put(cacheKey, new EntitySummary(summary));
         return summary;
     }
 
@@ -82,6 +92,17 @@ public class EntityMappingAtlas2OMRS {
     public EntityDetail getEntityDetail() throws RepositoryErrorException {
 
         final String methodName = "getEntityDetail";
+
+        // Re-use any mapping already done for this same version of the Apache Atlas entity
+        BoundedCache<String, EntityDetail> cache = atlasRepositoryConnector.getMappedEntityDetailCache();
+        String cacheKey = getMappedCacheKey();
+        EntityDetail cached = cache.get(cacheKey);
+        if (isCurrent(cached)) {
+            return copyEntityDetail(cached);
+        } else if (cached != null) {
+            cache.remove(cacheKey);
+        }
+
         String atlasTypeDefName = atlasEntity.getTypeName();
         String omrsTypeDefName = typeDefStore.getMappedOMRSTypeDefName(atlasTypeDefName, prefix);
         if (log.isInfoEnabled()) { log.info("Found mapped type for Atlas type '{}' with prefix '{}': {}", atlasTypeDefName, prefix, omrsTypeDefName); }
@@ -131,7 +152,8 @@ public class EntityMappingAtlas2OMRS {
                     // And map any other simple (non-relationship) properties that are not otherwise mapped into 'additionalProperties'
                     Map<String, String> additionalProperties = new HashMap<>();
 
-                    Set<String> nonRelationshipSet = atlasProperties.keySet();
+                    // (copying the property names, as the Apache Atlas entity itself may be shared via the cache)
+                    Set<String> nonRelationshipSet = new HashSet<>(atlasProperties.keySet());
 
                     // Remove all of the already-mapped properties from our list of non-relationship properties
                     nonRelationshipSet.removeAll(alreadyMapped);
@@ -160,6 +182,7 @@ public class EntityMappingAtlas2OMRS {
 
                 // TODO: detail.setReplicatedBy();
                 addClassifications(detail);
+                cache.put(cacheKey, copyEntityDetail(detail));
 
             }
         } else {
@@ -171,7 +194,36 @@ public class EntityMappingAtlas2OMRS {
     }
 
     /**
-     * Retrieves relationships for this entity based on the provided criteria.
+     * Retrieve the key under which the mapped OMRS entity for the provided Apache Atlas entity is cached.
+     *
+     * @param guid the GUID of the Apache Atlas entity
+     * @param prefix the prefix indicating a generated type (and GUID), or null if not generated
+     * @return String
+     */
+    public static String getMappedCacheKey(String guid, String prefix) {
+        return guid + "|" + (prefix == null ? "" : prefix);
+    }
+
+    /**
+     * Retrieve the OMRS version of the provided Apache Atlas entity: its modification time, just as for relationships
+     * and classifications (as Apache Atlas does not always increment the version of an entity when it changes), or its
+     * Apache Atlas version if it has no modification time.
+     *
+     * @param atlasEntity the Apache Atlas entity
+     * @return long
+     */
+    public static long getVersion(AtlasEntity atlasEntity) {
+        if (atlasEntity.getUpdateTime() != null) {
+            return atlasEntity.getUpdateTime().getTime();
+        }
+        return atlasEntity.getVersion() == null ? 0L : atlasEntity.getVersion();
+    }
+
+    /**
+     * Retrieves relationships for this entity based on the provided criteria. When limited to a single type of
+     * relationship, only the Apache Atlas relationship attributes that could hold that type of relationship are
+     * considered; and when no sequencing is requested, related entities are only retrieved for as many relationships
+     * as are needed to reach the end of the requested page.
      *
      * @param relationshipTypeGUID the OMRS GUID of the relationship TypeDef to which to limit the results
      * @param fromRelationshipElement the starting element for multiple pages of relationships
@@ -192,12 +244,31 @@ public class EntityMappingAtlas2OMRS {
         //OMRSRepositoryHelper omrsRepositoryHelper = atlasRepositoryConnector.getRepositoryHelper();
         String repositoryName = atlasRepositoryConnector.getRepositoryName();
 
+        // Without any sequencing, the page of results can be determined before retrieving any related entities
+        Comparator<Relationship> comparator = SequencingUtils.getRelationshipComparator(sequencingOrder, sequencingProperty);
+        boolean pageBeforeMapping = (comparator == null);
+        int endOfPage = pageSize > 0 ? fromRelationshipElement + pageSize : Integer.MAX_VALUE;
+
+        // If limited to a single relationship type, only the relationship attributes for that type need be considered
+        Set<String> atlasPropertiesOfInterest = null;
+        if (relationshipTypeGUID != null) {
+            TypeDef relationshipTypeDef = typeDefStore.getTypeDefByGUID(relationshipTypeGUID);
+            if (relationshipTypeDef != null) {
+                atlasPropertiesOfInterest = typeDefStore.getAtlasRelationshipAttributeNames(relationshipTypeDef.getName());
+            }
+        }
+
         // We have all the relationships from Atlas (no way to limit the query), so we will iterate
-        // through them all
+        // through them -- first to select those that should be mapped, so that we can then retrieve all of the
+        // related entities (needed for their proxies) in bulk rather than one at a time
+        List<CandidateRelationship> candidates = new ArrayList<>();
         Map<String, Object> atlasRelationships = atlasEntity.getRelationshipAttributes();
         for (Map.Entry<String, Object> atlasRelationship : atlasRelationships.entrySet()) {
 
             String atlasPropertyName = atlasRelationship.getKey();
+            if (atlasPropertiesOfInterest != null && !atlasPropertiesOfInterest.contains(atlasPropertyName)) {
+                continue;
+            }
 
             // TODO: we could avoid iterating through all of the assignments
             //  if we store the mapping between relationship property name and type in the TypeDefStore
@@ -234,44 +305,13 @@ public class EntityMappingAtlas2OMRS {
                             TypeDefStore.Endpoint endpointOfRelated = typeDefStore.getMappedEndpointFromAtlasName(atlasRelationshipType, atlasPropertyName, null);
                             TypeDefStore.EndpointMapping mapping = typeDefStore.getEndpointMappingFromAtlasName(atlasRelationshipType, null);
 
-                            EntityProxy ep1;
-                            EntityProxy ep2;
-
                             String prefixForSelf;
                             switch (endpointOfRelated) {
                                 case ONE:
-                                    ep1 = RelationshipMapping.getEntityProxyForObject(
-                                            atlasRepositoryConnector,
-                                            typeDefStore,
-                                            atlasRepositoryConnector.getEntityByGUID(relationshipAssignment.getGuid(), true, true).getEntity(),
-                                            mapping == null ? null : mapping.getPrefixOne(),
-                                            userId
-                                    );
                                     prefixForSelf = mapping == null ? null : mapping.getPrefixTwo();
-                                    ep2 = RelationshipMapping.getEntityProxyForObject(
-                                            atlasRepositoryConnector,
-                                            typeDefStore,
-                                            atlasEntity,
-                                            prefixForSelf,
-                                            userId
-                                    );
                                     break;
                                 case TWO:
                                     prefixForSelf = mapping == null ? null : mapping.getPrefixOne();
-                                    ep1 = RelationshipMapping.getEntityProxyForObject(
-                                            atlasRepositoryConnector,
-                                            typeDefStore,
-                                            atlasEntity,
-                                            prefixForSelf,
-                                            userId
-                                    );
-                                    ep2 = RelationshipMapping.getEntityProxyForObject(
-                                            atlasRepositoryConnector,
-                                            typeDefStore,
-                                            atlasRepositoryConnector.getEntityByGUID(relationshipAssignment.getGuid(), true, true).getEntity(),
-                                            mapping == null ? null : mapping.getPrefixTwo(),
-                                            userId
-                                    );
                                     break;
                                 default:
                                     OMRSErrorCode errorCode = OMRSErrorCode.INVALID_RELATIONSHIP_ENDS;
@@ -290,26 +330,7 @@ public class EntityMappingAtlas2OMRS {
 
                             // If the prefixes match, then include the relationship -- otherwise skip the relationship
                             if ((prefixForSelf == null && prefix == null) || (prefixForSelf != null && prefixForSelf.equals(prefix))) {
-                                AtlasStruct attrsOnAtlasReln = relationshipAssignment.getRelationshipAttributes();
-                                Map<String, Object> atlasRelationshipProperties = null;
-                                if (attrsOnAtlasReln != null) {
-                                    atlasRelationshipProperties = attrsOnAtlasReln.getAttributes();
-                                }
-                                Relationship omrsRelationship = RelationshipMapping.getRelationship(
-                                        atlasRepositoryConnector,
-                                        typeDefStore,
-                                        attributeDefStore,
-                                        atlasRelationshipType,
-                                        relationshipAssignment.getRelationshipGuid(),
-                                        relationshipAssignment.getRelationshipStatus(),
-                                        ep1,
-                                        ep2,
-                                        atlasEntity.getCreatedBy(),
-                                        atlasEntity.getUpdatedBy(),
-                                        atlasEntity.getCreateTime(),
-                                        atlasEntity.getUpdateTime(),
-                                        atlasRelationshipProperties);
-                                omrsRelationships.add(omrsRelationship);
+                                candidates.add(new CandidateRelationship(relationshipAssignment, endpointOfRelated, mapping, prefixForSelf));
                             }
 
                         }
@@ -319,7 +340,29 @@ public class EntityMappingAtlas2OMRS {
 
         }
 
+        // Without sequencing, map the candidates in order only as far as is needed to fill the page. Positions count the
+        // relationships actually mapped (a candidate whose related entity cannot be retrieved is dropped), so that
+        // each page starts just where the previous one ended
+        int mapped = 0;
+        if (pageBeforeMapping) {
+            int next = 0;
+            while (next < candidates.size() && (pageSize <= 0 || omrsRelationships.size() < pageSize)) {
+                int needed = pageSize > 0 ? Math.max(fromRelationshipElement - mapped, 0) + pageSize - omrsRelationships.size() : candidates.size();
+                int endOfChunk = (int) Math.min((long) next + needed, candidates.size());
+                for (Relationship omrsRelationship : mapCandidates(candidates.subList(next, endOfChunk))) {
+                    if (mapped >= fromRelationshipElement && (pageSize <= 0 || omrsRelationships.size() < pageSize)) {
+                        omrsRelationships.add(omrsRelationship);
+                    }
+                    mapped++;
+                }
+                next = endOfChunk;
+            }
+        } else {
+            omrsRelationships.addAll(mapCandidates(candidates));
+        }
+
         // Then handle any generated relationships (between what is the same entity in Atlas but different entities in OMRS)
+        List<Relationship> generatedRelationships = new ArrayList<>();
         if (relationshipTypeGUID == null) {
             Map<String, TypeDefStore.EndpointMapping> mappedRelationships = typeDefStore.getAllEndpointMappingsFromAtlasName(atlasEntity.getTypeName());
             for (Map.Entry<String, TypeDefStore.EndpointMapping> entry : mappedRelationships.entrySet()) {
@@ -357,7 +400,7 @@ public class EntityMappingAtlas2OMRS {
                             atlasEntity.getCreateTime(),
                             atlasEntity.getUpdateTime(),
                             null);
-                    omrsRelationships.add(omrsRelationship);
+                    generatedRelationships.add(omrsRelationship);
                 }
             }
         } else {
@@ -376,19 +419,115 @@ public class EntityMappingAtlas2OMRS {
             }
         }
 
-        // Now sort the results, if requested
-        Comparator<Relationship> comparator = SequencingUtils.getRelationshipComparator(sequencingOrder, sequencingProperty);
-        if (comparator != null) {
+        if (pageBeforeMapping) {
+            // The mapped relationships are already limited to the page, so only fill any remainder of the page with
+            // generated relationships (which come after all of the mapped relationships: so if there is any remainder,
+            // every candidate has been mapped and counted)
+            int startOfGenerated = Math.min(Math.max(0, fromRelationshipElement - mapped), generatedRelationships.size());
+            int remainingOnPage = pageSize > 0 ? pageSize - omrsRelationships.size() : generatedRelationships.size();
+            if (remainingOnPage > 0) {
+                omrsRelationships.addAll(generatedRelationships.subList(startOfGenerated, Math.min(startOfGenerated + remainingOnPage, generatedRelationships.size())));
+            }
+        } else {
+            // Otherwise sort all of the results, and then limit them to the page
+            omrsRelationships.addAll(generatedRelationships);
             omrsRelationships.sort(comparator);
+            int startOfPage = Math.min(fromRelationshipElement, omrsRelationships.size());
+            int endOfPageMarker = Math.min(endOfPage, omrsRelationships.size());
+            if (startOfPage != 0 || endOfPageMarker < omrsRelationships.size()) {
+                omrsRelationships = omrsRelationships.subList(startOfPage, endOfPageMarker);
+            }
+        }
+
+        return (omrsRelationships.isEmpty() ? null : omrsRelationships);
+
+    }
+
+    /**
+     * Map the provided candidate relationships, retrieving all of their related entities at once. Any candidate whose
+     * related entity cannot be retrieved is skipped.
+     *
+     * @param candidates the candidate relationships to map, in order
+     * @return {@code List<Relationship>} of the mapped relationships, in the same order
+     * @throws RepositoryErrorException when unable to map a relationship
+     */
+    private List<Relationship> mapCandidates(List<CandidateRelationship> candidates) throws RepositoryErrorException {
+
+        List<Relationship> omrsRelationships = new ArrayList<>();
+        // Retrieve all of the related entities at once, and then map each relationship using them
+        Set<String> relatedGuids = new HashSet<>();
+        for (CandidateRelationship candidate : candidates) {
+            relatedGuids.add(candidate.getRelationshipAssignment().getGuid());
         }
+        Map<String, AtlasEntity.AtlasEntityWithExtInfo> relatedEntities = atlasRepositoryConnector.getEntitiesByGUIDs(relatedGuids, true, true);
+        for (CandidateRelationship candidate : candidates) {
+
+            AtlasRelatedObjectId relationshipAssignment = candidate.getRelationshipAssignment();
+            TypeDefStore.EndpointMapping mapping = candidate.getMapping();
+            AtlasEntity.AtlasEntityWithExtInfo related = relatedEntities.get(relationshipAssignment.getGuid());
+            if (related == null) {
+                if (log.isWarnEnabled()) { log.warn("Unable to retrieve related entity {} -- skipping relationship: {}", relationshipAssignment.getGuid(), relationshipAssignment.getRelationshipGuid()); }
+                continue;
+            }
+
+            EntityProxy ep1;
+            EntityProxy ep2;
+            if (candidate.getEndpointOfRelated() == TypeDefStore.Endpoint.ONE) {
+                ep1 = RelationshipMapping.getEntityProxyForObject(
+                        atlasRepositoryConnector,
+                        typeDefStore,
+                        related.getEntity(),
+                        mapping == null ? null : mapping.getPrefixOne(),
+                        userId
+                );
+                ep2 = RelationshipMapping.getEntityProxyForObject(
+                        atlasRepositoryConnector,
+                        typeDefStore,
+                        atlasEntity,
+                        candidate.getPrefixForSelf(),
+                        userId
+                );
+            } else {
+                ep1 = RelationshipMapping.getEntityProxyForObject(
+                        atlasRepositoryConnector,
+                        typeDefStore,
+                        atlasEntity,
+                        candidate.getPrefixForSelf(),
+                        userId
+                );
+                ep2 = RelationshipMapping.getEntityProxyForObject(
+                        atlasRepositoryConnector,
+                        typeDefStore,
+                        related.getEntity(),
+                        mapping == null ? null : mapping.getPrefixTwo(),
+                        userId
+                );
+            }
+
+            AtlasStruct attrsOnAtlasReln = relationshipAssignment.getRelationshipAttributes();
+            Map<String, Object> atlasRelationshipProperties = null;
+            if (attrsOnAtlasReln != null) {
+                atlasRelationshipProperties = attrsOnAtlasReln.getAttributes();
+            }
+            Relationship omrsRelationship = RelationshipMapping.getRelationship(
+                    atlasRepositoryConnector,
+                    typeDefStore,
+                    attributeDefStore,
+                    relationshipAssignment.getRelationshipType(),
+                    relationshipAssignment.getRelationshipGuid(),
+                    relationshipAssignment.getRelationshipStatus(),
+                    ep1,
+                    ep2,
+                    atlasEntity.getCreatedBy(),
+                    atlasEntity.getUpdatedBy(),
+                    atlasEntity.getCreateTime(),
+                    atlasEntity.getUpdateTime(),
+                    atlasRelationshipProperties);
+            omrsRelationships.add(omrsRelationship);
 
-        // And finally limit the results, if requested
-        int endOfPageMarker = Math.min(fromRelationshipElement + pageSize, omrsRelationships.size());
-        if (fromRelationshipElement != 0 || endOfPageMarker < omrsRelationships.size()) {
-            omrsRelationships = omrsRelationships.subList(fromRelationshipElement, endOfPageMarker);
         }
 
-        return (omrsRelationships.isEmpty() ? null : omrsRelationships);
+        return omrsRelationships;
 
     }
 
@@ -447,6 +586,46 @@ public class EntityMappingAtlas2OMRS {
 
     }
 
+    /**
+     * Retrieve the key under which the mapped OMRS entity for this Apache Atlas entity is cached.
+     *
+     * @return String
+     */
+    private String getMappedCacheKey() {
+        return getMappedCacheKey(atlasEntity.getGuid(), prefix);
+    }
+
+    /**
+     * Indicates whether the provided (cached) OMRS entity was mapped from the same version of the Apache Atlas entity
+     * as the one used to construct this mapping object. Who last updated the entity is compared as well, so that an
+     * entity mapped from a notification (which does not say who made the change) is never taken for one mapped from
+     * the entity as retrieved.
+     *
+     * @param cached the cached OMRS object (EntitySummary or EntityDetail)
+     * @return boolean
+     */
+    private boolean isCurrent(EntitySummary cached) {
+        return cached != null
+                && cached.getVersion() == getVersion(atlasEntity)
+                && Objects.equals(cached.getUpdateTime(), atlasEntity.getUpdateTime())
+                && Objects.equals(cached.getUpdatedBy(), atlasEntity.getUpdatedBy());
+    }
+
+    /**
+     * Create a copy of the provided EntityDetail, including its properties, so that changes to the copy do not
+     * affect the cached original.
+     *
+     * @param original the EntityDetail to copy
+     * @return EntityDetail
+     */
+    private static EntityDetail copyEntityDetail(EntityDetail original) {
+        EntityDetail copy = new EntityDetail(original);
+        if (original.getProperties() != null) {
+            copy.setProperties(new InstanceProperties(original.getProperties()));
+        }
+        return copy;
+    }
+
     /**
      * Retrieve an API-accessible instance URL based on the GUID of an entity.
      *
@@ -467,7 +646,7 @@ public class EntityMappingAtlas2OMRS {
         omrsObj.setCreateTime(atlasEntity.getCreateTime());
         omrsObj.setUpdatedBy(atlasEntity.getUpdatedBy());
         omrsObj.setUpdateTime(atlasEntity.getUpdateTime());
-        omrsObj.setVersion(atlasEntity.getVersion());
+        omrsObj.setVersion(getVersion(atlasEntity));
     }
 
     /**
@@ -563,4 +742,32 @@ public class EntityMappingAtlas2OMRS {
 
     }
 
+    /**
+     * A relationship from Apache Atlas that has been selected for mapping, but whose related entity has not yet been
+     * retrieved.
+     */
+    private static final class CandidateRelationship {
+
+        private AtlasRelatedObjectId relationshipAssignment;
+        private TypeDefStore.Endpoint endpointOfRelated;
+        private TypeDefStore.EndpointMapping mapping;
+        private String prefixForSelf;
+
+        CandidateRelationship(AtlasRelatedObjectId relationshipAssignment,
+                              TypeDefStore.Endpoint endpointOfRelated,
+                              TypeDefStore.EndpointMapping mapping,
+                              String prefixForSelf) {
+            this.relationshipAssignment = relationshipAssignment;
+            this.endpointOfRelated = endpointOfRelated;
+            this.mapping = mapping;
+            this.prefixForSelf = prefixForSelf;
+        }
+
+        AtlasRelatedObjectId getRelationshipAssignment() { return relationshipAssignment; }
+        TypeDefStore.Endpoint getEndpointOfRelated() { return endpointOfRelated; }
+        TypeDefStore.EndpointMapping getMapping() { return mapping; }
+        String getPrefixForSelf() { return prefixForSelf; }
+
+    }
+
 }
@@ -19,7 +19,9 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.TypeErrorExceptio
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -78,18 +80,26 @@ public class RelationshipMapping {
             AtlasObjectId atlasEp1 = atlasRelationship.getEnd1();
             AtlasObjectId atlasEp2 = atlasRelationship.getEnd2();
 
+            // Retrieve both ends in a single call to Apache Atlas
+            List<String> endpointGuids = new ArrayList<>();
+            endpointGuids.add(atlasEp1.getGuid());
+            endpointGuids.add(atlasEp2.getGuid());
+            Map<String, AtlasEntity.AtlasEntityWithExtInfo> endpoints = atlasRepositoryConnector.getEntitiesByGUIDs(endpointGuids, true, true);
+            AtlasEntity.AtlasEntityWithExtInfo atlasEntity1 = endpoints.get(atlasEp1.getGuid());
+            AtlasEntity.AtlasEntityWithExtInfo atlasEntity2 = endpoints.get(atlasEp2.getGuid());
+
             // TODO: currently all mappings from Atlas RelationshipDef to OMRS RelationshipDef are one-to-n, so never a prefix
             EntityProxy ep1 = RelationshipMapping.getEntityProxyForObject(
                     atlasRepositoryConnector,
                     typeDefStore,
-                    atlasRepositoryConnector.getEntityByGUID(atlasEp1.getGuid(), true, true).getEntity(),
+                    atlasEntity1 == null ? null : atlasEntity1.getEntity(),
                     null,
                     userId
             );
             EntityProxy ep2 = RelationshipMapping.getEntityProxyForObject(
                     atlasRepositoryConnector,
                     typeDefStore,
-                    atlasRepositoryConnector.getEntityByGUID(atlasEp2.getGuid(), true, true).getEntity(),
+                    atlasEntity2 == null ? null : atlasEntity2.getEntity(),
                     null,
                     userId
             );
@@ -354,7 +364,7 @@ public class RelationshipMapping {
                 entityProxy.setCreateTime(atlasObj.getCreateTime());
                 entityProxy.setUpdatedBy(atlasObj.getUpdatedBy());
                 entityProxy.setUpdateTime(atlasObj.getUpdateTime());
-                entityProxy.setVersion(atlasObj.getVersion());
+                entityProxy.setVersion(EntityMappingAtlas2OMRS.getVersion(atlasObj));
             } catch (TypeErrorException e) {
                 log.error("Unable to create new EntityProxy.", e);
             }
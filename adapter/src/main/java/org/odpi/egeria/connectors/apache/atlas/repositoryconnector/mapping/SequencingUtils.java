@@ -8,7 +8,10 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.InstancePropertyValue;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 
 public class SequencingUtils {
 
@@ -140,4 +143,67 @@ public class SequencingUtils {
 
     }
 
+    /**
+     * Merge multiple lists, each already sorted by the provided comparator, into a single page of sorted results.
+     * Only as many elements are visited as are needed to fill the page: the first 'skip' merged elements are
+     * discarded, and merging stops as soon as 'limit' elements have been collected. If no comparator is provided, the
+     * lists are simply concatenated (in the order given) before the page is taken.
+     *
+     * @param sortedLists the lists to merge, each of which must already be sorted by the comparator
+     * @param comparator the comparator by which the lists are sorted (or null if there is no ordering)
+     * @param skip the number of merged elements to skip before starting the page
+     * @param limit the maximum number of elements to include in the page (0 for no limit)
+     * @param <T> the type of element being merged
+     * @return {@code List<T>}
+     */
+    public static <T> List<T> mergeSorted(List<List<T>> sortedLists,
+                                          Comparator<T> comparator,
+                                          int skip,
+                                          int limit) {
+
+        List<T> page = new ArrayList<>();
+        int skipped = 0;
+
+        if (comparator == null) {
+            for (List<T> list : sortedLists) {
+                for (T element : list) {
+                    if (skipped < skip) {
+                        skipped++;
+                    } else if (limit <= 0 || page.size() < limit) {
+                        page.add(element);
+                    } else {
+                        return page;
+                    }
+                }
+            }
+            return page;
+        }
+
+        // Keep a cursor for each list, ordered by the element each currently points to (and by list for ties, so the
+        // merge is stable)
+        PriorityQueue<int[]> cursors = new PriorityQueue<>((a, b) -> {
+            int result = comparator.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1]));
+            return result != 0 ? result : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                cursors.add(new int[]{ i, 0 });
+            }
+        }
+        while (!cursors.isEmpty() && (limit <= 0 || page.size() < limit)) {
+            int[] cursor = cursors.poll();
+            List<T> list = sortedLists.get(cursor[0]);
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                page.add(list.get(cursor[1]));
+            }
+            if (cursor[1] + 1 < list.size()) {
+                cursors.add(new int[]{ cursor[0], cursor[1] + 1 });
+            }
+        }
+        return page;
+
+    }
+
 }
@@ -0,0 +1,212 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A simple, thread-safe in-process cache that is bounded both by the number of entries it will hold (evicting the
+ * least-recently used entries first) and by the length of time for which any entry is considered valid.
+ *
+ * @param <K> the type of the keys of the cache
+ * @param <V> the type of the values held in the cache
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxSize the maximum number of entries to hold (0 or less disables the cache entirely)
+     * @param timeToLiveMillis the number of milliseconds for which an entry remains valid (0 or less for no expiry)
+     */
+    public BoundedCache(int maxSize, long timeToLiveMillis) {
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Indicates whether the cache will hold any entries (true) or has been disabled (false).
+     *
+     * @return boolean
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Retrieve the value cached for the provided key, or null if there is no (valid) value cached.
+     *
+     * @param key the key for which to retrieve a value
+     * @return V
+     */
+    public V get(K key) {
+        if (!isEnabled() || key == null) {
+            return null;
+        }
+        V value = null;
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.isExpired(timeToLiveMillis)) {
+                    entries.remove(key);
+                    evictions.incrementAndGet();
+                } else {
+                    value = entry.getValue();
+                }
+            }
+        }
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Cache the provided value against the provided key, evicting the least-recently used entry if the cache is full.
+     *
+     * @param key the key against which to cache the value
+     * @param value the value to cache
+     */
+    public void put(K key, V value) {
+        if (!isEnabled() || key == null || value == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new CacheEntry<>(value));
+            Iterator<Map.Entry<K, CacheEntry<V>>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove any value cached against the provided key.
+     *
+     * @param key the key to remove from the cache
+     */
+    public void remove(K key) {
+        if (key != null) {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Remove all values cached against keys that match the provided condition.
+     *
+     * @param condition the condition that any key to be removed must match
+     */
+    public void removeIf(Predicate<K> condition) {
+        synchronized (entries) {
+            entries.keySet().removeIf(condition);
+        }
+    }
+
+    /**
+     * Remove all values from the cache.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Retrieve the number of entries currently held in the cache (including any that have expired but not yet been
+     * evicted).
+     *
+     * @return int
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Retrieve the number of lookups that found a valid value in the cache.
+     *
+     * @return long
+     */
+    public long getHitCount() { return hits.get(); }
+
+    /**
+     * Retrieve the number of lookups that did not find a valid value in the cache.
+     *
+     * @return long
+     */
+    public long getMissCount() { return misses.get(); }
+
+    /**
+     * Retrieve the number of entries that have been evicted from the cache, either due to its size or their expiry.
+     *
+     * @return long
+     */
+    public long getEvictionCount() { return evictions.get(); }
+
+    /**
+     * Retrieve the proportion of lookups that found a valid value in the cache.
+     *
+     * @return double
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache{" +
+                "size=" + size() +
+                ", maxSize=" + maxSize +
+                ", timeToLiveMillis=" + timeToLiveMillis +
+                ", hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                ", evictions=" + evictions.get() +
+                '}';
+    }
+
+    /**
+     * A single value held in the cache, along with the time at which it was cached.
+     *
+     * @param <V> the type of the value held
+     */
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long cachedAt;
+
+        CacheEntry(V value) {
+            this.value = value;
+            this.cachedAt = System.currentTimeMillis();
+        }
+
+        V getValue() { return value; }
+
+        boolean isExpired(long timeToLiveMillis) {
+            return timeToLiveMillis > 0 && (System.currentTimeMillis() - cachedAt) > timeToLiveMillis;
+        }
+
+    }
+
+}
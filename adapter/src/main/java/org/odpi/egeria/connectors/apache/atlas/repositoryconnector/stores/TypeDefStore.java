@@ -281,6 +281,44 @@ public class TypeDefStore {
         return atlasNameToEndpointMapByPrefix.getOrDefault(atlasTypeName, null);
     }
 
+    /**
+     * Retrieve the names of all of the Apache Atlas relationship attributes (on an entity) through which relationships
+     * of the provided OMRS relationship type could be found, or null if these cannot be determined.
+     *
+     * @param omrsRelationshipTypeName the name of the OMRS RelationshipDef
+     * @return {@code Set<String>}
+     */
+    public Set<String> getAtlasRelationshipAttributeNames(String omrsRelationshipTypeName) {
+        Map<String, String> atlasTypesByPrefix = getAllMappedAtlasTypeDefNames(omrsRelationshipTypeName);
+        if (atlasTypesByPrefix == null) {
+            return null;
+        }
+        Set<String> attributeNames = new HashSet<>();
+        for (Map.Entry<String, String> entry : atlasTypesByPrefix.entrySet()) {
+            String atlasTypeName = entry.getValue();
+            EndpointMapping mapping = getEndpointMappingFromAtlasName(atlasTypeName, entry.getKey());
+            if (mapping != null) {
+                // Generated relationships have no Apache Atlas endpoint attribute, so cannot be narrowed by name
+                if (mapping.atlas1 == null || mapping.atlas2 == null) {
+                    return null;
+                }
+                attributeNames.add(mapping.atlas1);
+                attributeNames.add(mapping.atlas2);
+            } else {
+                // Otherwise it should be a RelationshipDef that we created as part of OMRS registration
+                TypeDef typeDef = getTypeDefByName(atlasTypeName, false);
+                if (typeDef instanceof RelationshipDef) {
+                    RelationshipDef relationshipDef = (RelationshipDef) typeDef;
+                    attributeNames.add(relationshipDef.getEndDef1().getAttributeName());
+                    attributeNames.add(relationshipDef.getEndDef2().getAttributeName());
+                } else {
+                    return null;
+                }
+            }
+        }
+        return attributeNames;
+    }
+
     /**
      * Retrieves all of the Apache Atlas TypeDef names that are mapped to the provided OMRS TypeDef name, or null
      * if there is no mapping. The map returned will be keyed by prefix, and values will be the mapped Atlas TypeDef
@@ -0,0 +1,72 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.notification.EntityNotification.EntityNotificationV2;
+import org.apache.atlas.model.notification.EntityNotification.EntityNotificationV2.OperationType;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Test the coalescing of entity updates within a batch of events received from Apache Atlas.
+ */
+public class ApacheAtlasOMRSRepositoryEventMapperTest {
+
+    @Test
+    public void testCoalesceRunOfUpdates() {
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent first = event("a", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent other = event("b", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent second = event("a", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent last = event("a", OperationType.ENTITY_UPDATE);
+        List<ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent> coalesced = ApacheAtlasOMRSRepositoryEventMapper.coalesceUpdates(Arrays.asList(first, other, second, last));
+        assertEquals(coalesced.size(), 2);
+        assertSame(coalesced.get(0), other);
+        assertSame(coalesced.get(1), last);
+    }
+
+    @Test
+    public void testOtherEventEndsRun() {
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent create = event("a", OperationType.ENTITY_CREATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent update1 = event("a", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent classify = event("a", OperationType.CLASSIFICATION_ADD);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent update2 = event("a", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent update3 = event("a", OperationType.ENTITY_UPDATE);
+        List<ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent> coalesced = ApacheAtlasOMRSRepositoryEventMapper.coalesceUpdates(Arrays.asList(create, update1, classify, update2, update3));
+        assertEquals(coalesced.size(), 4);
+        assertSame(coalesced.get(0), create);
+        assertSame(coalesced.get(1), update1);
+        assertSame(coalesced.get(2), classify);
+        assertSame(coalesced.get(3), update3);
+    }
+
+    @Test
+    public void testKeepsEventsWithoutEntity() {
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent unparsed = new ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent(null, null);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent update1 = event("a", OperationType.ENTITY_UPDATE);
+        ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent update2 = event("a", OperationType.ENTITY_UPDATE);
+        List<ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent> coalesced = ApacheAtlasOMRSRepositoryEventMapper.coalesceUpdates(Arrays.asList(update1, unparsed, update2));
+        assertEquals(coalesced.size(), 2);
+        assertSame(coalesced.get(0), unparsed);
+        assertSame(coalesced.get(1), update2);
+    }
+
+    /**
+     * Create a received event for the provided operation on the provided entity.
+     *
+     * @param guid the GUID of the entity
+     * @param operationType the operation on the entity
+     * @return ReceivedEvent
+     */
+    private static ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent event(String guid, OperationType operationType) {
+        AtlasEntityHeader header = new AtlasEntityHeader("DataSet");
+        header.setGuid(guid);
+        return new ApacheAtlasOMRSRepositoryEventMapper.ReceivedEvent(null, new EntityNotificationV2(header, operationType, System.currentTimeMillis()));
+    }
+
+}
@@ -0,0 +1,91 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the ordering and sending of events gathered by a BatchingEventEmitter.
+ */
+public class BatchingEventEmitterTest {
+
+    @Test(timeOut = 10000)
+    public void testFlushSendsInOrder() throws InterruptedException {
+        // A linger far longer than the test, so that only a full group or the flush sends anything
+        BatchingEventEmitter emitter = new BatchingEventEmitter("TestEmitter", 10, 60000);
+        try {
+            List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < 25; i++) {
+                int sequence = i;
+                emitter.emit(() -> sent.add(sequence));
+            }
+            emitter.flush();
+            assertEquals(sent.size(), 25);
+            for (int i = 0; i < sent.size(); i++) {
+                assertEquals(sent.get(i), Integer.valueOf(i));
+            }
+        } finally {
+            emitter.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testSendsAfterLinger() throws InterruptedException {
+        BatchingEventEmitter emitter = new BatchingEventEmitter("TestEmitter", 100, 50);
+        try {
+            CountDownLatch sent = new CountDownLatch(1);
+            emitter.emit(sent::countDown);
+            assertTrue(sent.await(5, TimeUnit.SECONDS));
+        } finally {
+            emitter.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testSendsFullGroupWithoutWaiting() throws InterruptedException {
+        BatchingEventEmitter emitter = new BatchingEventEmitter("TestEmitter", 3, 60000);
+        try {
+            CountDownLatch sent = new CountDownLatch(3);
+            for (int i = 0; i < 3; i++) {
+                emitter.emit(sent::countDown);
+            }
+            assertTrue(sent.await(5, TimeUnit.SECONDS));
+        } finally {
+            emitter.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testFailedEventDoesNotStopSending() throws InterruptedException {
+        BatchingEventEmitter emitter = new BatchingEventEmitter("TestEmitter", 10, 60000);
+        try {
+            CountDownLatch sent = new CountDownLatch(1);
+            emitter.emit(() -> { throw new IllegalStateException("Failed on purpose"); });
+            emitter.emit(sent::countDown);
+            emitter.flush();
+            assertEquals(sent.getCount(), 0);
+        } finally {
+            emitter.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testShutdownSendsGathered() throws InterruptedException {
+        BatchingEventEmitter emitter = new BatchingEventEmitter("TestEmitter", 10, 60000);
+        CountDownLatch sent = new CountDownLatch(2);
+        emitter.emit(sent::countDown);
+        emitter.emit(sent::countDown);
+        emitter.shutdown();
+        assertEquals(sent.getCount(), 0);
+    }
+
+}
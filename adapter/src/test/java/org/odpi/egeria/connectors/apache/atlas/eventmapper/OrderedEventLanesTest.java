@@ -0,0 +1,93 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.eventmapper;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the ordering of events per key across OrderedEventLanes, and waiting for them to be processed.
+ */
+public class OrderedEventLanesTest {
+
+    @Test(timeOut = 10000)
+    public void testOrderPerKey() throws InterruptedException {
+        OrderedEventLanes lanes = new OrderedEventLanes("TestLane", 4, 8);
+        try {
+            Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+            for (int i = 0; i < 500; i++) {
+                String key = "guid-" + (i % 10);
+                int sequence = i / 10;
+                lanes.submit(key, () -> processed.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence));
+            }
+            lanes.awaitIdle();
+            assertEquals(processed.size(), 10);
+            for (Map.Entry<String, List<Integer>> entry : processed.entrySet()) {
+                List<Integer> sequences = entry.getValue();
+                assertEquals(sequences.size(), 50, entry.getKey());
+                for (int i = 0; i < sequences.size(); i++) {
+                    assertEquals(sequences.get(i), Integer.valueOf(i), entry.getKey());
+                }
+            }
+            assertEquals(lanes.getQueuedCount(), 0);
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testAwaitIdleWaitsForProcessing() throws InterruptedException {
+        OrderedEventLanes lanes = new OrderedEventLanes("TestLane", 2, 4);
+        try {
+            AtomicBoolean done = new AtomicBoolean(false);
+            lanes.submit("slow", () -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.set(true);
+            });
+            lanes.awaitIdle();
+            assertTrue(done.get());
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testFailedEventDoesNotStopLane() throws InterruptedException {
+        OrderedEventLanes lanes = new OrderedEventLanes("TestLane", 1, 4);
+        try {
+            AtomicInteger processed = new AtomicInteger(0);
+            lanes.submit("key", () -> { throw new IllegalStateException("Failed on purpose"); });
+            lanes.submit("key", processed::incrementAndGet);
+            lanes.awaitIdle();
+            assertEquals(processed.get(), 1);
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testAwaitIdleWithNothingSubmitted() throws InterruptedException {
+        OrderedEventLanes lanes = new OrderedEventLanes("TestLane", 2, 4);
+        try {
+            lanes.awaitIdle();
+            assertEquals(lanes.getNumberOfLanes(), 2);
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+}
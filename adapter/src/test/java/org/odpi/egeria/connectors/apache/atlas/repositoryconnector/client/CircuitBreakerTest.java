@@ -0,0 +1,94 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the transitions of a CircuitBreaker between its states.
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60000);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        breaker.recordFailure();
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        assertEquals(breaker.getTripCount(), 1);
+        assertFalse(breaker.isAvailable());
+        assertFalse(breaker.allowRequest());
+        assertEquals(breaker.getRejectedCount(), 1);
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60000);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        assertEquals(breaker.getConsecutiveFailures(), 0);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testTrialSuccessCloses() throws InterruptedException {
+        CircuitBreaker breaker = tripped(50);
+        Thread.sleep(100);
+        // Checking availability must not itself let the trial through
+        assertTrue(breaker.isAvailable());
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        assertTrue(breaker.allowRequest());
+        assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        // Only a single trial at a time
+        assertFalse(breaker.isAvailable());
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void testTrialFailureReopens() throws InterruptedException {
+        CircuitBreaker breaker = tripped(50);
+        Thread.sleep(100);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        assertEquals(breaker.getTripCount(), 2);
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void testNeverOpensWithoutThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0, 60000);
+        for (int i = 0; i < 10; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(breaker.allowRequest());
+    }
+
+    /**
+     * Create a breaker that has just opened.
+     *
+     * @param openMillis the number of milliseconds for which the breaker stays open
+     * @return CircuitBreaker
+     */
+    private static CircuitBreaker tripped(long openMillis) {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, openMillis);
+        breaker.recordFailure();
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+}
@@ -0,0 +1,179 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.apache.atlas.AtlasServiceException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Test when a HedgingPolicy hedges a read, within its budgets, and which response it uses.
+ */
+public class HedgingPolicyTest {
+
+    private static final long MIN_DELAY_MILLIS = 50;
+
+    @Test(timeOut = 10000)
+    public void testNoHedgeUntilDelayKnown() throws AtlasServiceException {
+        HedgingPolicy policy = new HedgingPolicy(true, 95, MIN_DELAY_MILLIS, 100, 4);
+        try {
+            AtomicInteger calls = new AtomicInteger(0);
+            assertEquals(policy.read(slowThenFast(calls), null), "slow");
+            assertEquals(calls.get(), 1);
+            assertEquals(policy.getHedgeCount(), 0);
+            assertEquals(policy.getDelayMillis(), -1);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testFirstResponseWins() throws AtlasServiceException {
+        HedgingPolicy policy = warmedUp(100);
+        try {
+            AtomicInteger calls = new AtomicInteger(0);
+            long start = System.currentTimeMillis();
+            assertEquals(policy.read(slowThenFast(calls), null), "fast");
+            assertTrue(System.currentTimeMillis() - start < 1000, "Waited for the slow read");
+            assertEquals(calls.get(), 2);
+            assertEquals(policy.getHedgeCount(), 1);
+            // The win is counted just after the hedge hands back its response
+            while (policy.getHedgeWinCount() == 0) {
+                sleep(5);
+            }
+            assertEquals(policy.getHedgeWinCount(), 1);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testFailsOnlyWhenEveryAttemptFails() {
+        HedgingPolicy policy = warmedUp(100);
+        try {
+            AtomicInteger calls = new AtomicInteger(0);
+            AtlasServiceException failure = expectThrows(AtlasServiceException.class, () -> policy.read(() -> {
+                if (calls.incrementAndGet() == 1) {
+                    sleep(200);
+                }
+                throw new AtlasServiceException(new IOException("Failed on purpose"));
+            }, null));
+            assertTrue(failure.getCause() instanceof IOException);
+            assertEquals(calls.get(), 2);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testHedgeBudget() throws AtlasServiceException {
+        // With a budget of 1% only the first slow read, after 65 reads in all, can be hedged
+        HedgingPolicy policy = warmedUp(1);
+        try {
+            AtomicInteger calls = new AtomicInteger(0);
+            assertEquals(policy.read(slowThenFast(calls), null), "fast");
+            assertEquals(policy.getHedgeCount(), 1);
+            calls.set(0);
+            assertEquals(policy.read(slowThenFast(calls), null), "slow");
+            assertEquals(calls.get(), 1);
+            assertEquals(policy.getHedgeCount(), 1);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testHedgeNeedsRequestBudget() throws AtlasServiceException, InterruptedException {
+        HedgingPolicy policy = warmedUp(100);
+        RequestBudget budget = new RequestBudget("test", 0, 0, 1);
+        try {
+            // The read itself holds the only permit, leaving none for a hedge
+            budget.acquire();
+            AtomicInteger calls = new AtomicInteger(0);
+            assertEquals(policy.read(slowThenFast(calls), budget), "slow");
+            assertEquals(calls.get(), 1);
+            assertEquals(policy.getHedgeCount(), 0);
+            budget.release();
+            assertEquals(budget.getInFlightCount(), 0);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testHedgeReleasesRequestBudget() throws AtlasServiceException, InterruptedException {
+        HedgingPolicy policy = warmedUp(100);
+        RequestBudget budget = new RequestBudget("test", 0, 0, 2);
+        try {
+            budget.acquire();
+            AtomicInteger calls = new AtomicInteger(0);
+            assertEquals(policy.read(slowThenFast(calls), budget), "fast");
+            assertEquals(policy.getHedgeCount(), 1);
+            budget.release();
+            // The hedge gives back its permit once it has completed
+            while (budget.getInFlightCount() > 0) {
+                Thread.sleep(5);
+            }
+            assertEquals(budget.getRequestCount(), 2);
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    /**
+     * Create a policy, and make enough fast reads through it for it to know the delay after which to hedge.
+     *
+     * @param budgetPercent the maximum number of hedges to make, as a percentage of all reads
+     * @return HedgingPolicy
+     */
+    private static HedgingPolicy warmedUp(double budgetPercent) {
+        HedgingPolicy policy = new HedgingPolicy(true, 95, MIN_DELAY_MILLIS, budgetPercent, 4);
+        try {
+            for (int i = 0; i < 64; i++) {
+                policy.read(() -> "warm", null);
+            }
+        } catch (AtlasServiceException e) {
+            throw new IllegalStateException(e);
+        }
+        assertEquals(policy.getDelayMillis(), MIN_DELAY_MILLIS);
+        assertEquals(policy.getHedgeCount(), 0);
+        return policy;
+    }
+
+    /**
+     * Create a read whose first call is slow (well beyond the delay after which to hedge), and whose later calls are
+     * fast.
+     *
+     * @param calls the number of calls made to the read
+     * @return {@code ResilientInvoker.AtlasCall<String>}
+     */
+    private static ResilientInvoker.AtlasCall<String> slowThenFast(AtomicInteger calls) {
+        return () -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(MIN_DELAY_MILLIS * 6);
+                return "slow";
+            }
+            return "fast";
+        };
+    }
+
+    /**
+     * Sleep for the provided time, without throwing.
+     *
+     * @param millis the number of milliseconds for which to sleep
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the limits a RequestBudget places on requests, and the order in which waiting requests are started.
+ */
+public class RequestBudgetTest {
+
+    @Test(timeOut = 10000)
+    public void testInFlightLimit() throws InterruptedException {
+        RequestBudget budget = new RequestBudget("test", 0, 0, 2);
+        budget.acquire();
+        budget.acquire();
+        assertEquals(budget.getInFlightCount(), 2);
+        assertFalse(budget.tryAcquire());
+        budget.release();
+        assertTrue(budget.tryAcquire());
+        budget.release();
+        budget.release();
+        assertEquals(budget.getInFlightCount(), 0);
+        assertEquals(budget.getRequestCount(), 3);
+    }
+
+    @Test(timeOut = 10000)
+    public void testWaitersStartInArrivalOrder() throws InterruptedException {
+        RequestBudget budget = new RequestBudget("test", 0, 0, 1);
+        budget.acquire();
+        List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            int id = i;
+            Thread waiter = new Thread(() -> {
+                try {
+                    budget.acquire();
+                    started.add(id);
+                    budget.release();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiters.add(waiter);
+            waiter.start();
+            // Only start the next waiter once this one is queued, so that the order of arrival is known
+            while (budget.getWaitingCount() < i) {
+                Thread.sleep(5);
+            }
+        }
+        // Nothing may jump ahead of the requests already waiting
+        budget.release();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        assertEquals(started, Arrays.asList(1, 2, 3, 4, 5));
+        assertEquals(budget.getInFlightCount(), 0);
+        assertEquals(budget.getDelayedCount(), 5);
+    }
+
+    @Test(timeOut = 10000)
+    public void testTryAcquireDoesNotWait() throws InterruptedException {
+        RequestBudget budget = new RequestBudget("test", 0, 0, 1);
+        budget.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                budget.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        while (budget.getWaitingCount() < 1) {
+            Thread.sleep(5);
+        }
+        assertFalse(budget.tryAcquire());
+        budget.release();
+        waiter.join();
+        assertEquals(budget.getInFlightCount(), 1);
+        budget.release();
+    }
+
+    @Test(timeOut = 10000)
+    public void testRateLimit() throws InterruptedException {
+        RequestBudget budget = new RequestBudget("test", 20, 1, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            budget.acquire();
+            budget.release();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        // Three requests at 20 per second (one every 50ms) take at least two intervals
+        assertTrue(elapsedMillis >= 90, "Only took " + elapsedMillis + "ms");
+        assertEquals(budget.getDelayedCount(), 2);
+    }
+
+    @Test
+    public void testBurst() {
+        RequestBudget budget = new RequestBudget("test", 1, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(budget.tryAcquire(), "Request " + i + " not allowed in the burst");
+        }
+        assertFalse(budget.tryAcquire());
+        assertEquals(budget.getRequestCount(), 5);
+    }
+
+}
@@ -0,0 +1,140 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import org.apache.atlas.AtlasServiceException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Test which failures a ResilientInvoker retries, and how many times.
+ */
+public class ResilientInvokerTest {
+
+    @Test
+    public void testRetriesUpToCap() {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger(0);
+        AtlasServiceException failure = expectThrows(AtlasServiceException.class, () -> invoker.read("test", null, () -> {
+            attempts.incrementAndGet();
+            throw new AtlasServiceException(new IOException("Failed on purpose"));
+        }));
+        assertTrue(failure.getCause() instanceof IOException);
+        assertEquals(attempts.get(), 3);
+        assertEquals(invoker.getCallCount(), 1);
+        assertEquals(invoker.getRetryCount(), 2);
+        assertEquals(invoker.getFailureCount(), 1);
+    }
+
+    @Test
+    public void testSucceedsAfterTransientFailures() throws AtlasServiceException {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger(0);
+        String result = invoker.read("test", null, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ClientHandlerException(new SocketTimeoutException("Failed on purpose"));
+            }
+            return "result";
+        });
+        assertEquals(result, "result");
+        assertEquals(attempts.get(), 3);
+        assertEquals(invoker.getFailureCount(), 0);
+    }
+
+    @Test
+    public void testServerErrorRetried() {
+        ResilientInvoker invoker = new ResilientInvoker(2, 0, 0);
+        AtlasServiceException unavailable = withStatus(ClientResponse.Status.SERVICE_UNAVAILABLE);
+        AtomicInteger attempts = new AtomicInteger(0);
+        AtlasServiceException failure = expectThrows(AtlasServiceException.class, () -> invoker.read("test", null, () -> {
+            attempts.incrementAndGet();
+            throw unavailable;
+        }));
+        assertSame(failure, unavailable);
+        assertEquals(attempts.get(), 2);
+    }
+
+    @Test
+    public void testClientErrorNotRetried() {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        AtlasServiceException notFound = withStatus(ClientResponse.Status.NOT_FOUND);
+        AtomicInteger attempts = new AtomicInteger(0);
+        AtlasServiceException failure = expectThrows(AtlasServiceException.class, () -> invoker.read("test", null, () -> {
+            attempts.incrementAndGet();
+            throw notFound;
+        }));
+        assertSame(failure, notFound);
+        assertEquals(attempts.get(), 1);
+        assertEquals(invoker.getRetryCount(), 0);
+        assertEquals(invoker.getFailureCount(), 0);
+    }
+
+    @Test
+    public void testNonIOFailureNotRetried() {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger(0);
+        expectThrows(AtlasServiceException.class, () -> invoker.read("test", null, () -> {
+            attempts.incrementAndGet();
+            throw new AtlasServiceException(new IllegalStateException("Failed on purpose"));
+        }));
+        assertEquals(attempts.get(), 1);
+    }
+
+    @Test
+    public void testWriteNotRetried() {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger(0);
+        expectThrows(AtlasServiceException.class, () -> invoker.write("test", null, () -> {
+            attempts.incrementAndGet();
+            throw new AtlasServiceException(new IOException("Failed on purpose"));
+        }));
+        assertEquals(attempts.get(), 1);
+    }
+
+    @Test
+    public void testIsTransient() {
+        assertTrue(ResilientInvoker.isTransient(withStatus(ClientResponse.Status.INTERNAL_SERVER_ERROR)));
+        assertFalse(ResilientInvoker.isTransient(withStatus(ClientResponse.Status.BAD_REQUEST)));
+        assertTrue(ResilientInvoker.isTransient(new AtlasServiceException(new RuntimeException(new IOException("Nested")))));
+        assertTrue(ResilientInvoker.isTransient(new AtlasServiceException(new ClientHandlerException("Failed on purpose"))));
+        assertFalse(ResilientInvoker.isTransient(new AtlasServiceException(new IllegalArgumentException("Failed on purpose"))));
+    }
+
+    @Test
+    public void testBudgetReleasedAfterEachAttempt() {
+        ResilientInvoker invoker = new ResilientInvoker(3, 0, 0);
+        RequestBudget budget = new RequestBudget("test", 0, 0, 1);
+        expectThrows(AtlasServiceException.class, () -> invoker.read("test", budget, () -> {
+            assertEquals(budget.getInFlightCount(), 1);
+            throw new AtlasServiceException(new IOException("Failed on purpose"));
+        }));
+        assertEquals(budget.getInFlightCount(), 0);
+        assertEquals(budget.getRequestCount(), 3);
+    }
+
+    /**
+     * Create a failure as if Apache Atlas had responded with the provided status.
+     *
+     * @param status the status of the response
+     * @return AtlasServiceException
+     */
+    private static AtlasServiceException withStatus(ClientResponse.Status status) {
+        AtlasServiceException failure = mock(AtlasServiceException.class);
+        when(failure.getStatus()).thenReturn(status);
+        return failure;
+    }
+
+}
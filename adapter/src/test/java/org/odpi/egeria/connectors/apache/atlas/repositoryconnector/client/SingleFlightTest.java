@@ -0,0 +1,109 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.client;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Test the sharing of concurrent identical calls by a SingleFlight, and the clean-up of each key once its call is done.
+ */
+public class SingleFlightTest {
+
+    @Test(timeOut = 10000)
+    public void testConcurrentCallsShared() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger made = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("guid", () -> {
+                made.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            started.await();
+            Future<String> second = executor.submit(() -> singleFlight.execute("guid", () -> {
+                made.incrementAndGet();
+                return "other";
+            }));
+            while (singleFlight.getSharedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            assertEquals(first.get(), "result");
+            assertEquals(second.get(), "result");
+            assertEquals(made.get(), 1);
+            assertEquals(singleFlight.getCallCount(), 1);
+            assertEquals(singleFlight.getInFlightCount(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testExceptionSharedAndKeyRemoved() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("guid", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("Failed on purpose");
+            }));
+            started.await();
+            Future<String> second = executor.submit(() -> singleFlight.execute("guid", () -> "other"));
+            while (singleFlight.getSharedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            assertEquals(expectThrows(Exception.class, first::get).getCause().getClass(), IllegalStateException.class);
+            assertEquals(expectThrows(Exception.class, second::get).getCause().getClass(), IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+        // Nothing is left behind for the failed call: the next caller makes a call of its own
+        assertEquals(singleFlight.getInFlightCount(), 0);
+        assertEquals(singleFlight.execute("guid", () -> "retried"), "retried");
+        assertEquals(singleFlight.getCallCount(), 2);
+    }
+
+    @Test
+    public void testSequentialCallsNotShared() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger made = new AtomicInteger(0);
+        assertEquals(singleFlight.execute("guid", made::incrementAndGet), Integer.valueOf(1));
+        assertEquals(singleFlight.execute("guid", made::incrementAndGet), Integer.valueOf(2));
+        assertEquals(singleFlight.execute(null, made::incrementAndGet), Integer.valueOf(3));
+        assertEquals(singleFlight.getCallCount(), 3);
+        assertEquals(singleFlight.getSharedCount(), 0);
+        assertEquals(singleFlight.getInFlightCount(), 0);
+    }
+
+    /**
+     * Wait for the provided latch, without throwing.
+     *
+     * @param latch the latch for which to wait
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.mapping;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the k-way merge of sorted results into a single page.
+ */
+public class SequencingUtilsTest {
+
+    @Test
+    public void testMergeNoLists() {
+        List<List<Integer>> lists = new ArrayList<>();
+        assertTrue(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testMergeEmptyLists() {
+        List<List<Integer>> lists = Arrays.asList(Collections.emptyList(), Collections.emptyList());
+        assertTrue(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 0, 10).isEmpty());
+        assertTrue(SequencingUtils.mergeSorted(lists, null, 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testMergeUnequalLists() {
+        List<List<Integer>> lists = Arrays.asList(
+                Arrays.asList(1, 4, 9),
+                Collections.emptyList(),
+                Arrays.asList(2, 3, 5, 6, 7, 8),
+                Collections.singletonList(10)
+        );
+        assertEquals(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 0, 0),
+                Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void testMergePage() {
+        List<List<Integer>> lists = Arrays.asList(
+                Arrays.asList(1, 4, 9),
+                Arrays.asList(2, 3, 5, 6, 7, 8),
+                Collections.singletonList(10)
+        );
+        assertEquals(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 3, 4),
+                Arrays.asList(4, 5, 6, 7));
+        assertEquals(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 8, 4),
+                Arrays.asList(9, 10));
+        assertTrue(SequencingUtils.mergeSorted(lists, Comparator.<Integer>naturalOrder(), 10, 4).isEmpty());
+    }
+
+    @Test
+    public void testMergeIsStable() {
+        List<List<String>> lists = Arrays.asList(
+                Arrays.asList("a1", "b1"),
+                Arrays.asList("a2", "b2")
+        );
+        Comparator<String> byFirstCharacter = Comparator.comparing(value -> value.charAt(0));
+        assertEquals(SequencingUtils.mergeSorted(lists, byFirstCharacter, 0, 0),
+                Arrays.asList("a1", "a2", "b1", "b2"));
+    }
+
+    @Test
+    public void testConcatenateWithoutComparator() {
+        List<List<Integer>> lists = Arrays.asList(
+                Arrays.asList(3, 1),
+                Collections.emptyList(),
+                Arrays.asList(2, 0)
+        );
+        assertEquals(SequencingUtils.mergeSorted(lists, null, 0, 0), Arrays.asList(3, 1, 2, 0));
+        assertEquals(SequencingUtils.mergeSorted(lists, null, 1, 2), Arrays.asList(1, 2));
+    }
+
+}
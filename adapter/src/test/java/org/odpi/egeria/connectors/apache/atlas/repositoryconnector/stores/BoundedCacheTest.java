@@ -0,0 +1,63 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.apache.atlas.repositoryconnector.stores;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Test the eviction and expiry of entries from a BoundedCache.
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 0);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals(cache.get("a"), "A");
+        cache.put("c", "C");
+        assertEquals(cache.size(), 2);
+        assertNull(cache.get("b"));
+        assertEquals(cache.get("a"), "A");
+        assertEquals(cache.get("c"), "C");
+        assertEquals(cache.getEvictionCount(), 1);
+        assertEquals(cache.getHitCount(), 3);
+        assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test
+    public void testExpiresEntries() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 50);
+        cache.put("a", "A");
+        assertEquals(cache.get("a"), "A");
+        Thread.sleep(150);
+        assertNull(cache.get("a"));
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getEvictionCount(), 1);
+    }
+
+    @Test
+    public void testDisabled() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, 0);
+        assertFalse(cache.isEnabled());
+        cache.put("a", "A");
+        assertNull(cache.get("a"));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testRemoveIf() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 0);
+        cache.put("x:1", "1");
+        cache.put("x:2", "2");
+        cache.put("y:1", "3");
+        cache.removeIf(key -> key.startsWith("x:"));
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.get("y:1"), "3");
+    }
+
+}